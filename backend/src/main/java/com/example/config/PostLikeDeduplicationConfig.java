@@ -0,0 +1,60 @@
+package com.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Xóa các dòng post_like trùng cặp (user_id, post_id) trước khi Hibernate cập nhật schema:
+ * ddl-auto=update không thêm được unique key (user_id, post_id) khi bảng còn dòng trùng.
+ * Chạy trước EntityManagerFactory; bỏ qua khi unique key đã có hoặc bảng chưa tồn tại.
+ * like_count của các bài bị ảnh hưởng được sửa ở lần đối soát kế tiếp (PostCounterReconciliationJob).
+ */
+@Slf4j
+@Configuration
+public class PostLikeDeduplicationConfig {
+    private static final String BEAN_NAME = "postLikeDeduplication";
+    private static final String UNIQUE_KEY_SQL = "SELECT COUNT(*) FROM information_schema.table_constraints " +
+            "WHERE table_schema = DATABASE() AND table_name = 'post_like' AND constraint_type = 'UNIQUE'";
+    private static final String DUPLICATES_SQL = "SELECT COUNT(*) FROM (SELECT user_id, post_id FROM post_like " +
+            "GROUP BY user_id, post_id HAVING COUNT(*) > 1) duplicated";
+    // Giữ lại dòng có id nhỏ nhất của mỗi cặp; bảng dẫn xuất để MySQL cho phép xóa trên chính bảng đang đọc
+    private static final String DELETE_SQL = "DELETE FROM post_like WHERE id IN (SELECT id FROM (" +
+            "SELECT l1.id FROM post_like l1 JOIN post_like l2 " +
+            "ON l1.user_id = l2.user_id AND l1.post_id = l2.post_id AND l1.id > l2.id) duplicated)";
+
+    @Bean(BEAN_NAME)
+    public InitializingBean postLikeDeduplication(DataSource dataSource) {
+        return () -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            Integer duplicated;
+            try {
+                Integer uniqueKeys = jdbcTemplate.queryForObject(UNIQUE_KEY_SQL, Integer.class);
+                if (uniqueKeys != null && uniqueKeys > 0) {
+                    return;
+                }
+                duplicated = jdbcTemplate.queryForObject(DUPLICATES_SQL, Integer.class);
+            } catch (DataAccessException e) {
+                // DB mới: bảng chưa được tạo, không có gì để dọn
+                log.debug("Skip post_like deduplication: {}", e.getMessage());
+                return;
+            }
+            if (duplicated == null || duplicated == 0) {
+                return;
+            }
+            int removed = jdbcTemplate.update(DELETE_SQL);
+            log.info("Removed {} duplicate post_like rows ({} user/post pairs)", removed, duplicated);
+        };
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor postLikeDeduplicationBeforeSchemaUpdate() {
+        return new EntityManagerFactoryDependsOnPostProcessor(BEAN_NAME);
+    }
+}
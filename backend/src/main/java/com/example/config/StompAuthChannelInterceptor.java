@@ -0,0 +1,58 @@
+package com.example.config;
+
+import com.example.service.realtime.PostLiveBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Xác thực STOMP bằng JwtDecoder dùng chung với REST: CONNECT phải mang header
+ * "Authorization: Bearer ..."; SUBSCRIBE chỉ cho phép các topic của bài viết.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtDecoder jwtDecoder;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String header = accessor.getFirstNativeHeader("Authorization");
+            if (header == null || !header.startsWith(BEARER_PREFIX)) {
+                throw new MessageDeliveryException("Missing bearer token");
+            }
+            try {
+                accessor.setUser(new JwtAuthenticationToken(jwtDecoder.decode(header.substring(BEARER_PREFIX.length()))));
+            } catch (JwtException e) {
+                throw new MessageDeliveryException("Invalid token");
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            if (accessor.getUser() == null) {
+                throw new MessageDeliveryException("Not authenticated");
+            }
+            if (PostLiveBroadcaster.postIdOf(accessor.getDestination()) == null) {
+                throw new MessageDeliveryException("Unknown destination: " + accessor.getDestination());
+            }
+        } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+            // Kênh này chỉ để server đẩy xuống
+            throw new MessageDeliveryException("Sending is not supported");
+        }
+        return message;
+    }
+}
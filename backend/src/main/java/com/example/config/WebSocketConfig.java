@@ -0,0 +1,63 @@
+package com.example.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    // Giới hạn buffer gửi của mỗi session: client chậm vượt quá sẽ bị đóng kết nối thay vì giữ message trong RAM
+    @Value("${ws.send-buffer-limit-bytes:524288}")
+    private int sendBufferLimitBytes;
+
+    @Value("${ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${ws.message-size-limit-bytes:65536}")
+    private int messageSizeLimitBytes;
+
+    @Value("${ws.outbound-queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // Handshake không mang được header Authorization, xác thực ở frame CONNECT
+        registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthChannelInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(4)
+                .maxPoolSize(8)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendBufferSizeLimit(sendBufferLimitBytes)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setMessageSizeLimit(messageSizeLimitBytes);
+    }
+}
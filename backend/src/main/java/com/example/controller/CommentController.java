@@ -2,7 +2,9 @@ package com.example.controller;
 
 import com.example.dto.ApiResponse;
 import com.example.dto.request.CommentRequestDTO;
+import com.example.dto.response.CursorPageResponse;
 import com.example.dto.response.user.CommentResponseDTO;
+import com.example.service.comment.CommentDepthExceededException;
 import com.example.service.comment.CommentService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -31,6 +33,10 @@ public class CommentController {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error(HttpStatus.NOT_FOUND.value(), "Không tìm thấy user hoặc bài viết."));
+        } catch (CommentDepthExceededException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Bình luận đã đạt độ sâu trả lời tối đa."));
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -54,6 +60,43 @@ public class CommentController {
         }
     }
 
+    @GetMapping("/post/{postId}/page")
+    public ResponseEntity<ApiResponse<CursorPageResponse<CommentResponseDTO>>> getCommentPage(
+            @PathVariable String postId,
+            @RequestParam(required = false) String currentUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + CommentService.DEFAULT_COMMENT_PAGE_SIZE) int size,
+            @RequestParam(value = "sort", defaultValue = CommentService.SORT_RECENT) String sort) {
+        try {
+            CursorPageResponse<CommentResponseDTO> page = commentService.getCommentPage(postId, currentUserId, cursor, size, sort);
+            return ResponseEntity.ok(
+                    ApiResponse.success(HttpStatus.OK.value(), "Lấy danh sách bình luận thành công.", page)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
+
+    @GetMapping("/{commentId}/replies")
+    public ResponseEntity<ApiResponse<CursorPageResponse<CommentResponseDTO>>> getReplies(
+            @PathVariable String commentId,
+            @RequestParam(required = false) String currentUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + CommentService.DEFAULT_REPLY_PAGE_SIZE) int size) {
+        try {
+            CursorPageResponse<CommentResponseDTO> page = commentService.getReplies(commentId, currentUserId, cursor, size);
+            return ResponseEntity.ok(
+                    ApiResponse.success(HttpStatus.OK.value(), "Lấy danh sách câu trả lời thành công.", page)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteComment(@PathVariable("id") String commentId) {
         try {
@@ -2,8 +2,9 @@ package com.example.controller;
 
 import com.example.dto.ApiResponse;
 import com.example.dto.request.LikeRequest;
-import com.example.entity.Like;
+import com.example.dto.response.like.LikedByResponse;
 import com.example.service.like.LikeService;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -19,17 +20,44 @@ public class LikeController {
 
     @PostMapping()
     public ResponseEntity<ApiResponse> like(@RequestBody LikeRequest request) {
-        Like like = service.like(request);
+        try {
+            service.like(request);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(HttpStatus.NOT_FOUND.value(), "Không tìm thấy user hoặc bài viết."));
+        }
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
                 "Like success", null));
     }
 
     @DeleteMapping()
     public ResponseEntity<ApiResponse> unlike(@RequestBody LikeRequest request) {
-        service.unlike(request);
+        try {
+            service.unlike(request);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(HttpStatus.NOT_FOUND.value(), "Không tìm thấy user hoặc bài viết."));
+        }
         return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
                 "Unlike success",null));
     }
 
+    @GetMapping("/{postId}/users")
+    public ResponseEntity<ApiResponse<LikedByResponse>> getLikedBy(
+            @PathVariable String postId,
+            @RequestParam("id") String currentUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + LikeService.DEFAULT_LIKERS_PAGE_SIZE) int size) {
+        try {
+            LikedByResponse rs = service.getLikedBy(postId, currentUserId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
+                    "Danh sách gồm " + rs.getItems().size() + " người đã thích", rs));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(HttpStatus.NOT_FOUND.value(), "Không tìm thấy bài viết."));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
 }
-
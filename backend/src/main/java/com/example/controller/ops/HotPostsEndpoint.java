@@ -0,0 +1,25 @@
+package com.example.controller.ops;
+
+import com.example.service.post.HotPostDetector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Bài đang hot cho vận hành: GET /actuator/hotposts trên cổng management, không nằm trong API công khai.
+ */
+@Component
+@Endpoint(id = "hotposts")
+@RequiredArgsConstructor
+public class HotPostsEndpoint {
+    private final HotPostDetector hotPostDetector;
+
+    // postId → số like/unlike mỗi giây trong cửa sổ hiện tại
+    @ReadOperation
+    public Map<String, Double> hotPosts() {
+        return hotPostDetector.hotPostRates();
+    }
+}
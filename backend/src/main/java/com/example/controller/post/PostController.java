@@ -2,15 +2,22 @@ package com.example.controller.post;
 
 import com.example.dto.ApiResponse;
 import com.example.dto.request.UpPostRequest;
+import com.example.dto.response.CursorPageResponse;
+import com.example.dto.response.post.NewPostsResponse;
 import com.example.dto.response.post.PostResponse;
 import com.example.dto.response.user.PostProfileResponse;
 import com.example.entity.Post;
+import com.example.service.feed.FeedService;
+import com.example.service.feed.ranking.FeedRankingService;
 import com.example.service.post.PostService;
+import com.example.service.post.PostStreamService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -20,6 +27,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PostController {
     private final PostService postService;
+    private final FeedService feedService;
+    private final FeedRankingService feedRankingService;
+    private final PostStreamService postStreamService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<PostResponse>>> getAllPost(@RequestParam("id") String currentUserId) {
@@ -31,6 +41,102 @@ public class PostController {
                 "Danh sách gồm " + postResponse.size() + " bài post", postResponse));
     }
 
+    // Cùng dữ liệu với getAllPost nhưng ghi dần từng bài (NDJSON hoặc SSE)
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamPosts(
+            @RequestParam("id") String currentUserId,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        PostStreamService.Format streamFormat = "sse".equalsIgnoreCase(format)
+                ? PostStreamService.Format.SSE
+                : PostStreamService.Format.NDJSON;
+        MediaType contentType = streamFormat == PostStreamService.Format.SSE
+                ? MediaType.TEXT_EVENT_STREAM
+                : MediaType.APPLICATION_NDJSON;
+        StreamingResponseBody body = out -> postStreamService.streamFeed(currentUserId, streamFormat, out);
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<ApiResponse<CursorPageResponse<PostResponse>>> getFeed(
+            @RequestParam("id") String currentUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + PostService.DEFAULT_FEED_PAGE_SIZE) int size) {
+        try {
+            CursorPageResponse<PostResponse> page = postService.getFeed(currentUserId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
+                    "Danh sách gồm " + page.getItems().size() + " bài post", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
+
+    @GetMapping("/feed/new")
+    public ResponseEntity<ApiResponse<NewPostsResponse>> getNewPosts(@RequestParam("id") String currentUserId,
+                                                                     @RequestParam("cursor") String cursor) {
+        try {
+            NewPostsResponse rs = postService.getNewPostsSince(currentUserId, cursor);
+            return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
+                    "Có " + rs.getCount() + " bài post mới", rs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
+
+    @GetMapping("/timeline")
+    public ResponseEntity<ApiResponse<CursorPageResponse<PostResponse>>> getTimeline(
+            @RequestParam("id") String currentUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + PostService.DEFAULT_FEED_PAGE_SIZE) int size) {
+        try {
+            CursorPageResponse<PostResponse> page = feedService.getTimeline(currentUserId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
+                    "Danh sách gồm " + page.getItems().size() + " bài post", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
+
+    @GetMapping("/timeline/new")
+    public ResponseEntity<ApiResponse<NewPostsResponse>> getNewTimelinePosts(@RequestParam("id") String currentUserId,
+                                                                             @RequestParam("cursor") String cursor) {
+        try {
+            NewPostsResponse rs = feedService.getNewSince(currentUserId, cursor);
+            return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
+                    "Có " + rs.getCount() + " bài post mới", rs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
+
+    @GetMapping("/ranked")
+    public ResponseEntity<ApiResponse<CursorPageResponse<PostResponse>>> getRankedFeed(
+            @RequestParam("id") String currentUserId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + PostService.DEFAULT_FEED_PAGE_SIZE) int size) {
+        try {
+            CursorPageResponse<PostResponse> page = feedRankingService.getRankedFeed(currentUserId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
+                    "Danh sách gồm " + page.getItems().size() + " bài post", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
+
+    @GetMapping("/detail")
+    public ResponseEntity<ApiResponse<PostResponse>> getPostDetail(@RequestParam("postId") String postId,
+                                                                   @RequestParam("id") String currentUserId) {
+        PostResponse post = postService.getPostDetail(postId, currentUserId);
+        if (post == null) {
+            return ResponseEntity.ok(ApiResponse.error(HttpStatus.NOT_FOUND.value(), "Không tìm thấy bài post"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(), "Lấy bài post thành công", post));
+    }
+
     @GetMapping("/minePost")
     public ResponseEntity<ApiResponse<List<PostResponse>>> getMyPosts(@RequestParam("id") String currentUserId) {
         List<PostResponse> myPosts = postService.getPostsByUser(currentUserId);
@@ -3,8 +3,11 @@ package com.example.controller.story;
 import com.example.dto.ApiResponse;
 import com.example.dto.request.StoryRequest;
 import com.example.dto.response.story.StoryResponse;
+import com.example.dto.response.story.StoryTrayItem;
 import com.example.dto.response.story.StoryViewResponse;
+import com.example.dto.response.story.StoryViewersResponse;
 import com.example.service.story.StoryService;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -89,6 +92,28 @@ public class StoryController {
         }
     }
 
+    @GetMapping("/tray")
+    public ResponseEntity<ApiResponse<List<StoryTrayItem>>> getStoryTray(
+            @RequestParam("userId") String currentUserId,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            if (jwt != null) {
+                String authenticatedUserId = userService.getIdByEmail(jwt.getSubject());
+                if (!currentUserId.equals(authenticatedUserId)) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                            .body(ApiResponse.error(HttpStatus.FORBIDDEN.value(), "Unauthorized"));
+                }
+            }
+
+            List<StoryTrayItem> tray = storyService.getStoryTray(currentUserId);
+            return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
+                    "Lấy khay story thành công", tray));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Lỗi khi lấy stories: " + e.getMessage()));
+        }
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<List<StoryResponse>>> getAllActiveStories(
             @RequestParam("userId") String currentUserId) {
@@ -136,6 +161,24 @@ public class StoryController {
         }
     }
 
+    @GetMapping("/{storyId}/viewers")
+    public ResponseEntity<ApiResponse<StoryViewersResponse>> getStoryViewers(
+            @PathVariable String storyId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "" + StoryService.DEFAULT_VIEWERS_PAGE_SIZE) int size) {
+        try {
+            StoryViewersResponse viewers = storyService.getStoryViewers(storyId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(HttpStatus.OK.value(),
+                    "Lấy danh sách người xem story thành công", viewers));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(HttpStatus.NOT_FOUND.value(), e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(HttpStatus.BAD_REQUEST.value(), "Cursor không hợp lệ"));
+        }
+    }
+
     @DeleteMapping("/{storyId}")
     public ResponseEntity<ApiResponse<Void>> deleteStory(
             @PathVariable String storyId,
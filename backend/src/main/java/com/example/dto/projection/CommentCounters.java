@@ -0,0 +1,7 @@
+package com.example.dto.projection;
+
+import java.time.LocalDateTime;
+
+// Đầu vào để tính lại rank_score của một comment
+public record CommentCounters(String id, Long likeCount, Long replyCount, LocalDateTime createAt) {
+}
@@ -0,0 +1,5 @@
+package com.example.dto.projection;
+
+// Chỉ id và điểm, đọc được hoàn toàn từ index (post_id, parent_comment_id, rank_score, id)
+public record CommentRankRef(String id, Double rankScore) {
+}
@@ -0,0 +1,16 @@
+package com.example.dto.projection;
+
+import java.time.LocalDateTime;
+
+// Một comment kèm thông tin người gửi, đủ để dựng cây comment mà không load entity
+public record CommentRow(String id,
+                         String parentId,
+                         String content,
+                         LocalDateTime createAt,
+                         String senderId,
+                         String senderUserName,
+                         String senderFullName,
+                         String senderEmail,
+                         String senderProfileImage,
+                         String senderBio) {
+}
@@ -0,0 +1,5 @@
+package com.example.dto.projection;
+
+// Story đã hết hạn cần dọn: id, tác giả và media trên Cloudinary
+public record ExpiredStory(String id, String authorId, String mediaUrl) {
+}
@@ -0,0 +1,12 @@
+package com.example.dto.projection;
+
+import java.time.LocalDateTime;
+
+// Một dòng trong danh sách người đã like: thông tin hiển thị của user + khóa keyset (createAt, id) của Like
+public record LikerRow(String likeId,
+                       LocalDateTime likedAt,
+                       String userId,
+                       String userName,
+                       String fullName,
+                       String profileImage) {
+}
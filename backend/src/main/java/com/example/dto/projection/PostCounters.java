@@ -0,0 +1,5 @@
+package com.example.dto.projection;
+
+// Giá trị hiện tại của cột like_count / comment_count, ghép vào card lấy từ cache
+public record PostCounters(String id, Long likeCount, Long commentCount) {
+}
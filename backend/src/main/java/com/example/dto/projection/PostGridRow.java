@@ -0,0 +1,14 @@
+package com.example.dto.projection;
+
+import java.time.LocalDateTime;
+
+// Chỉ các cột cần cho lưới bài viết ở trang cá nhân / bài đã lưu
+public record PostGridRow(String id,
+                          String content,
+                          LocalDateTime createAt,
+                          Long likeCount,
+                          Long commentCount,
+                          String userId,
+                          String userName,
+                          String avatarUrl) {
+}
@@ -0,0 +1,4 @@
+package com.example.dto.projection;
+
+public record PostImageRow(String postId, String id, String urlImage) {
+}
@@ -0,0 +1,6 @@
+package com.example.dto.projection;
+
+import java.time.LocalDateTime;
+
+public record PostRef(String id, LocalDateTime createAt) {
+}
@@ -0,0 +1,6 @@
+package com.example.dto.projection;
+
+import java.time.LocalDateTime;
+
+public record RankCandidate(String postId, String authorId, LocalDateTime createAt, Long likeCount, Long commentCount) {
+}
@@ -0,0 +1,4 @@
+package com.example.dto.projection;
+
+public record StoryAuthor(String storyId, String authorId) {
+}
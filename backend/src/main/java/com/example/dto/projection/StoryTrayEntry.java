@@ -0,0 +1,7 @@
+package com.example.dto.projection;
+
+import java.time.LocalDateTime;
+
+// Tác giả đang có story active: thời điểm đăng story mới nhất và lúc story đó hết hạn
+public record StoryTrayEntry(String authorId, LocalDateTime latestAt, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,12 @@
+package com.example.dto.projection;
+
+import java.time.LocalDateTime;
+
+// Một dòng trong danh sách người xem story: thông tin hiển thị của viewer + khóa keyset (viewedAt, id) của StoryView
+public record StoryViewerRow(String viewId,
+                             LocalDateTime viewedAt,
+                             String userId,
+                             String userName,
+                             String fullName,
+                             String profileImage) {
+}
@@ -0,0 +1,21 @@
+package com.example.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> items;
+    private String nextCursor; // null khi đã hết dữ liệu
+    private boolean hasMore;
+    private String newestCursor; // cursor của phần tử đầu tiên, dùng để poll bài mới
+}
@@ -0,0 +1,22 @@
+package com.example.dto.response.like;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LikedByResponse {
+    private List<LikerResponse> items; // người viewer theo dõi trước, sau đó mới nhất trước
+    private String nextCursor;         // null khi đã hết dữ liệu
+    private boolean hasMore;
+    private long likeCount;
+    private String summary;            // "Được thích bởi X và N người khác", chỉ có ở trang đầu
+}
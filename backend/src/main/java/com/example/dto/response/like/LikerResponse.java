@@ -0,0 +1,23 @@
+package com.example.dto.response.like;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LikerResponse {
+    private String userId;
+    private String userName;
+    private String fullName;
+    private String profileImage;
+    private boolean followed;     // viewer đang theo dõi người này
+    private LocalDateTime likedAt;
+}
@@ -0,0 +1,21 @@
+package com.example.dto.response.post;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NewPostsResponse {
+    private int count;            // số bài mới, tối đa bằng giới hạn của server
+    private List<String> ids;     // mới nhất trước
+    private boolean hasMore;      // còn nhiều bài mới hơn giới hạn, client nên tải lại trang đầu
+    private String newestCursor;  // cursor để lần poll sau, null khi không có bài mới
+}
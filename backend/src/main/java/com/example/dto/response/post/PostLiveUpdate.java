@@ -0,0 +1,24 @@
+package com.example.dto.response.post;
+
+import com.example.dto.response.user.CommentResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// Một message gộp mọi thay đổi của bài trong một cửa sổ coalesce
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostLiveUpdate {
+    private String postId;
+    private List<CommentResponseDTO> comments; // comment mới, cũ trước
+    private int droppedComments;               // số comment mới không kèm nội dung (vượt giới hạn), client tải lại nếu > 0
+    private long likeDelta;
+    private long likeCount;                    // giá trị hiện tại sau khi cộng delta chưa flush
+}
@@ -0,0 +1,20 @@
+package com.example.dto.response.story;
+
+import com.example.dto.response.user.UserResponse;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Một ô trong khay story: tất cả story đang active của một tác giả
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoryTrayItem {
+    private UserResponse user;
+    private boolean hasUnseen;           // còn story viewer chưa xem
+    private LocalDateTime latestAt;      // thời điểm đăng story mới nhất
+    private List<StoryResponse> stories; // cũ trước, đúng thứ tự phát
+}
@@ -0,0 +1,21 @@
+package com.example.dto.response.story;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StoryViewersResponse {
+    private List<StoryViewResponse> items; // người xem gần nhất trước
+    private String nextCursor;             // null khi đã hết dữ liệu
+    private boolean hasMore;
+    private long viewCount;
+}
@@ -20,6 +20,7 @@ public class CommentResponseDTO {
     private String updatedAt;
     private UserResponse sender;
     private List<CommentResponseDTO> replies;
+    private Long replyCount; // số reply trực tiếp, có thể lớn hơn số phần tử trong replies
     private Long likesCount;
     private Boolean isLiked;
 }
\ No newline at end of file
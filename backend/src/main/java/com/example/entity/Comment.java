@@ -1,6 +1,8 @@
 package com.example.entity;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,10 +14,14 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -26,7 +32,28 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+// Sửa nội dung chỉ UPDATE cột đã đổi, không ghi đè like_count / reply_count đang được cộng nguyên tử
+@DynamicUpdate
+@Table(indexes = {
+        // Phân trang comment gốc của một bài theo (create_at, id)
+        @Index(name = "idx_comment_post_parent_create_at", columnList = "post_id, parent_comment_id, create_at, id"),
+        // Phân trang / lấy K reply đầu của từng comment
+        @Index(name = "idx_comment_parent_create_at", columnList = "parent_comment_id, create_at, id"),
+        // Sắp xếp "top": top-N là range scan trên index, không sort toàn bộ comment của bài
+        @Index(name = "idx_comment_post_parent_rank", columnList = "post_id, parent_comment_id, rank_score, id"),
+        // Lấy / đếm / xóa cả cây con bằng một range scan: path LIKE 'prefix%'
+        @Index(name = "idx_comment_path", columnList = "path")
+})
 public class Comment {
+    public static final int PATH_SEGMENT_LENGTH = 8;
+    private static final int PATH_MAX_LENGTH = 740; // vừa giới hạn 3072 byte của index InnoDB với utf8mb4
+    public static final int MAX_DEPTH = PATH_MAX_LENGTH / (PATH_SEGMENT_LENGTH + 1);
+    private static final char[] PATH_ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    // Mỗi reply nặng bằng 2 like khi tính điểm
+    private static final int REPLY_WEIGHT = 2;
+    // Comment mới hơn 45000 giây (~12.5 giờ) ngang với tương tác gấp 10 lần
+    private static final double RECENCY_SECONDS = 45000d;
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -51,10 +78,19 @@ public class Comment {
     @JsonIgnoreProperties({"post", "sender", "replies", "parentComment"})
     private Comment parentComment;
 
-    @OneToMany(mappedBy = "parentComment", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Không cascade: cả thread được xóa bằng range theo path (xem CommentRepository.deleteSubtree)
+    @OneToMany(mappedBy = "parentComment")
     @JsonIgnoreProperties({"post", "sender", "replies", "parentComment"})
     private List<Comment> replies = new ArrayList<>();
 
+    // Materialized path: path của comment cha + một đoạn ngẫu nhiên cố định độ dài + "/".
+    // Null với comment có từ trước, cho tới khi CommentPathBackfillJob điền vào.
+    @Column(length = PATH_MAX_LENGTH)
+    private String path;
+
+    @Column
+    private Integer depth;
+
     @OneToMany(mappedBy = "comment", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnoreProperties({"comment", "user"})
     private List<CommentLike> likes = new ArrayList<>();
@@ -62,8 +98,55 @@ public class Comment {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createAt;
 
+    // Đếm sẵn, cập nhật nguyên tử khi like / reply và đối soát định kỳ
+    @ColumnDefault("0")
+    @Column(name = "like_count", nullable = false)
+    private long likeCount;
+
+    @ColumnDefault("0")
+    @Column(name = "reply_count", nullable = false)
+    private long replyCount;
+
+    @ColumnDefault("0")
+    @Column(name = "rank_score", nullable = false)
+    private double rankScore;
+
     @PrePersist
     public void onCreate() {
         this.createAt = LocalDateTime.now();
+        this.rankScore = computeRankScore(likeCount, replyCount, createAt);
+        // id (UUID) chưa được sinh ở thời điểm này nên path dùng đoạn ngẫu nhiên riêng,
+        // chỉ cần không trùng giữa các comment cùng cha
+        if (parentComment == null) {
+            this.path = newPathSegment() + "/";
+            this.depth = 0;
+        } else if (parentComment.getPath() != null) {
+            this.path = parentComment.getPath() + newPathSegment() + "/";
+            this.depth = parentComment.getDepth() + 1;
+        }
+    }
+
+    public static String newPathSegment() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] segment = new char[PATH_SEGMENT_LENGTH];
+        for (int i = 0; i < segment.length; i++) {
+            segment[i] = PATH_ALPHABET[random.nextInt(PATH_ALPHABET.length)];
+        }
+        return new String(segment);
+    }
+
+    /**
+     * Điểm xếp hạng kiểu "hot": log của tương tác cộng với thời điểm tạo. Phần thời gian cố định theo
+     * comment nên điểm không cần tính lại theo đồng hồ, chỉ cần cập nhật khi số like / reply thay đổi.
+     */
+    public static double computeRankScore(long likeCount, long replyCount, LocalDateTime createAt) {
+        long engagement = Math.max(1, likeCount + REPLY_WEIGHT * replyCount);
+        return Math.log10(engagement) + createAt.toEpochSecond(ZoneOffset.UTC) / RECENCY_SECONDS;
+    }
+
+    /** Cùng công thức {@link #computeRankScore} dưới dạng biểu thức SQL, để tính điểm ngay trong câu UPDATE. */
+    public static String rankScoreSql(String likeCount, String replyCount, String createAt) {
+        return "LOG10(GREATEST(1, " + likeCount + " + " + REPLY_WEIGHT + " * " + replyCount + ")) + " +
+               "TIMESTAMPDIFF(SECOND, '1970-01-01 00:00:00', " + createAt + ") / " + RECENCY_SECONDS;
     }
 }
\ No newline at end of file
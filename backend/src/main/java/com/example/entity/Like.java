@@ -9,10 +9,12 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -23,7 +25,14 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "post_like")
+@Table(name = "post_like",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "post_id"}),
+        indexes = {
+                // Duyệt/đếm người like theo bài
+                @Index(name = "idx_post_like_post_user", columnList = "post_id, user_id"),
+                // Danh sách "liked by": seek theo (create_at, id) trong một bài
+                @Index(name = "idx_post_like_post_create_at", columnList = "post_id, create_at, id")
+        })
 public class Like {
 
     @Id
@@ -9,14 +9,21 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -27,7 +34,24 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+// Fetch plan theo từng use case. Các graph dùng cho query có phân trang chỉ join ManyToOne,
+// collection được nạp theo lô bằng @BatchSize để tránh phân trang trong bộ nhớ.
+@NamedEntityGraph(name = Post.GRAPH_FEED_CARD, attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = Post.GRAPH_PROFILE_GRID, attributeNodes = @NamedAttributeNode("postImages"))
+@NamedEntityGraph(name = Post.GRAPH_DETAIL, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("postImages")
+})
+@Table(indexes = {
+        // Phục vụ seek query của feed: ORDER BY create_at DESC, id DESC
+        @Index(name = "idx_post_create_at_id", columnList = "create_at, id"),
+        @Index(name = "idx_post_user_create_at", columnList = "user_id, create_at")
+})
 public class Post {
+    public static final String GRAPH_FEED_CARD = "Post.feedCard";
+    public static final String GRAPH_PROFILE_GRID = "Post.profileGrid";
+    public static final String GRAPH_DETAIL = "Post.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
@@ -35,28 +59,41 @@ public class Post {
     @Column
     private String content;
 
-    @Column
+    @Column(name = "create_at")
     private LocalDateTime createAt;
 
+    // Đếm sẵn, được cộng dồn bởi PostCounterService (write-behind) và đối soát định kỳ
+    @ColumnDefault("0")
+    @Column(name = "like_count", nullable = false)
+    private long likeCount;
+
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount;
+
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PostImages> postImages;
 
-    @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Không cascade: PostService.deletePost xóa comment bằng bulk delete theo post_id
+    @BatchSize(size = 50)
+    @OneToMany(mappedBy = "post")
     @JsonIgnoreProperties({"post", "sender", "replies", "parentComment"})
     private List<Comment> comments;
 
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnoreProperties({"post", "user"})
     private List<Like> likes;
 
     @JsonBackReference
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
     @Transient
     public int countLikes() {
-        return this.likes.size();
+        return (int) this.likeCount;
     }
 
 //    @Transient
@@ -68,7 +105,7 @@ public class Post {
 
     @Transient
     public int countComment() {
-        return this.comments.size();
+        return (int) this.commentCount;
     }
 
     @PrePersist
@@ -2,6 +2,7 @@ package com.example.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,7 +15,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "stories")
+@Table(name = "stories", indexes = {
+        // StoryExpiryJob quét story hết hạn theo thứ tự expires_at
+        @Index(name = "idx_stories_expires_at", columnList = "expires_at, id")
+})
 public class Story {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -38,6 +42,11 @@ public class Story {
     @Column(nullable = false)
     private LocalDateTime expiresAt; // Tự động hết hạn sau 24 giờ
 
+    // Đếm sẵn, được cộng dồn bởi StoryViewBuffer sau mỗi lần flush
+    @ColumnDefault("0")
+    @Column(name = "view_count", nullable = false)
+    private long viewCount;
+
     @PrePersist
     public void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "story_views", uniqueConstraints = @UniqueConstraint(columnNames = {"story_id", "viewer_id"}))
+@Table(name = "story_views", uniqueConstraints = @UniqueConstraint(columnNames = {"story_id", "viewer_id"}),
+        // Phân trang người xem của một story theo (viewed_at, id)
+        indexes = @Index(name = "idx_story_views_story_viewed_at", columnList = "story_id, viewed_at, id"))
 public class StoryView {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.Arrays;
 
@@ -14,6 +15,7 @@ import java.util.Arrays;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@BatchSize(size = 50)
 @Table(name = "users")
 public class User  {
 
@@ -0,0 +1,6 @@
+package com.example.event;
+
+import com.example.dto.response.user.CommentResponseDTO;
+
+public record CommentAddedEvent(String postId, CommentResponseDTO comment) {
+}
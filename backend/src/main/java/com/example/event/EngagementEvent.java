@@ -0,0 +1,8 @@
+package com.example.event;
+
+// Người dùng tương tác với nội dung của một tác giả (dùng để tính affinity)
+public record EngagementEvent(String actorId, String authorId, Type type) {
+    public enum Type {
+        LIKE, UNLIKE, COMMENT, STORY_VIEW
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.event;
+
+/**
+ * @param userId     người được theo dõi
+ * @param followerId người theo dõi
+ * @param followed   true khi follow, false khi unfollow / bị xóa khỏi followers
+ */
+public record FollowChangedEvent(String userId, String followerId, boolean followed) {
+}
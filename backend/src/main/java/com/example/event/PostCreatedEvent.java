@@ -0,0 +1,6 @@
+package com.example.event;
+
+import java.time.LocalDateTime;
+
+public record PostCreatedEvent(String postId, String authorId, LocalDateTime createAt) {
+}
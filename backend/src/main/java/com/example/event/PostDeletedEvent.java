@@ -0,0 +1,4 @@
+package com.example.event;
+
+public record PostDeletedEvent(String postId) {
+}
@@ -0,0 +1,5 @@
+package com.example.event;
+
+// delta = +1 khi like, -1 khi unlike (chỉ phát khi trạng thái thực sự đổi)
+public record PostLikeChangedEvent(String postId, int delta) {
+}
@@ -0,0 +1,6 @@
+package com.example.event;
+
+import java.time.LocalDateTime;
+
+public record StoryCreatedEvent(String storyId, String authorId, LocalDateTime createdAt, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,4 @@
+package com.example.event;
+
+public record StoryDeletedEvent(String storyId, String authorId, String mediaUrl) {
+}
@@ -1,42 +1,32 @@
 package com.example.mapper;
-import java.util.List;
+import java.util.ArrayList;
 
+import com.example.dto.projection.CommentRow;
 import com.example.dto.response.user.CommentResponseDTO;
-import com.example.entity.Comment;
-import com.example.repository.comment.CommentLikeRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.dto.response.user.UserResponse;
 import org.springframework.stereotype.Service;
 
 @Service
-@RequiredArgsConstructor
 public class CommentMapper {
-    private final UserMapper userMapper;
-    private final CommentLikeRepository commentLikeRepository;
 
-    public CommentResponseDTO mapToDto(Comment comment, List<Comment> replies) {
-        return mapToDto(comment, replies, null);
-    }
-
-    public CommentResponseDTO mapToDto(Comment comment, List<Comment> replies, String currentUserId) {
+    // Dựng node từ projection; số like và trạng thái like đã được tính theo lô bởi CommentTreeLoader
+    public CommentResponseDTO toDto(CommentRow row, long likesCount, boolean isLiked) {
         CommentResponseDTO dto = new CommentResponseDTO();
-        dto.setId(comment.getId());
-        dto.setContent(comment.getContent());
-        dto.setSender(userMapper.toUserResponse(comment.getSender()));
-        dto.setCreatedAt(comment.getCreateAt().toString());
-        dto.setUpdatedAt(null); 
-        
-        // Set likes information
-        dto.setLikesCount(commentLikeRepository.countLikesByCommentId(comment.getId()));
-        dto.setIsLiked(currentUserId != null && 
-            commentLikeRepository.existsByCommentIdAndUserId(comment.getId(), currentUserId));
-
-        // đệ quy
-        if (replies != null) {
-            dto.setReplies(replies.stream()
-                .map(reply -> this.mapToDto(reply, reply.getReplies(), currentUserId))
-                .toList());
-        }
-
+        dto.setId(row.id());
+        dto.setContent(row.content());
+        dto.setSender(UserResponse.builder()
+                .id(row.senderId())
+                .userName(row.senderUserName())
+                .fullName(row.senderFullName())
+                .email(row.senderEmail())
+                .profileImage(row.senderProfileImage())
+                .bio(row.senderBio())
+                .build());
+        dto.setCreatedAt(row.createAt().toString());
+        dto.setUpdatedAt(null);
+        dto.setLikesCount(likesCount);
+        dto.setIsLiked(isLiked);
+        dto.setReplies(new ArrayList<>());
         return dto;
     }
-}
\ No newline at end of file
+}
@@ -1,53 +1,102 @@
 package com.example.mapper;
-import org.springframework.context.annotation.Lazy;
 import com.example.dto.request.UpPostRequest;
 import com.example.dto.response.post.PostResponse;
 import com.example.entity.Post;
 import com.example.entity.PostImages;
 import com.example.entity.User;
+import com.example.repository.like.LikeRepository;
+import com.example.repository.savedPost.SavedPostDetailRepository;
 import com.example.repository.user.UserRepository;
-import com.example.service.savedPost.SavedPostService;
+import com.example.service.like.LikeBuffer;
+import com.example.service.like.LikerBitmapIndex;
+import com.example.service.post.PostCard;
+import com.example.service.post.PostCounterService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class PostMapper {
     private final UserRepository user_repo;
     private final UserMapper userMapper;
-    private SavedPostService savedPostService;
+    private final LikeRepository likeRepository;
+    private final LikeBuffer likeBuffer;
+    private final LikerBitmapIndex likerBitmapIndex;
+    private final PostCounterService postCounterService;
+    private final SavedPostDetailRepository savedPostDetailRepository;
 
-    @Lazy
-    @Autowired
-    public void setSavedPostService(SavedPostService savedPostService) {
-        this.savedPostService = savedPostService;
+    public PostResponse toPostResponse(Post post, String currentUserId) {
+        return toPostResponses(List.of(post), currentUserId).get(0);
     }
 
-    public PostResponse toPostResponse(Post post, String currentUserId) {
-        boolean isLiked = post.getLikes().stream().anyMatch(like -> like.getUser().getId().equals(currentUserId));
-        boolean isSavedPost = savedPostService.isSavedPost(post,currentUserId);
+    public List<PostResponse> toPostResponses(List<Post> posts, String currentUserId) {
+        return fromCards(posts.stream().map(this::toPostCard).toList(), currentUserId);
+    }
 
-        return PostResponse.builder()
-                .id(post.getId())
-                .content(post.getContent())
-                .createAt(post.getCreateAt())
-                .images(post.getPostImages())
-                .comments(post.getComments().size())
-                .likes(post.getLikes().size())
-                .liked(isLiked)
-                .savedPost(isSavedPost)
-                .user(userMapper.toUserResponse(post.getUser()))
-                .build();
+    public PostCard toPostCard(Post post) {
+        // Copy ảnh ra khỏi entity để card không giữ tham chiếu tới persistence context
+        List<PostImages> images = post.getPostImages() == null ? List.of() : post.getPostImages().stream()
+                .map(img -> new PostImages(img.getId(), img.getUrlImage(), null))
+                .toList();
+        return new PostCard(post.getId(), post.getContent(), post.getCreateAt(), images,
+                post.getLikeCount(), post.getCommentCount(), userMapper.toUserResponse(post.getUser()));
     }
 
+    /**
+     * Map cả trang bài viết: liked/saved được lấy bằng một query theo tập id cho mỗi loại,
+     * không phụ thuộc số bài trong trang. Số like/comment lấy từ cột đếm sẵn cộng delta chưa flush.
+     */
+    public List<PostResponse> fromCards(List<PostCard> cards, String currentUserId) {
+        if (cards.isEmpty()) {
+            return List.of();
+        }
+        List<String> postIds = cards.stream().map(PostCard::id).toList();
+
+        Set<String> likedIds = new HashSet<>();
+        if (currentUserId != null) {
+            // Bài nóng trả lời từ bitmap, phần còn lại dùng một query IN
+            List<String> unindexed = new ArrayList<>();
+            for (PostCard card : cards) {
+                Boolean liked = likerBitmapIndex.isLiked(card.id(), card.likeCount(), currentUserId);
+                if (liked == null) {
+                    unindexed.add(card.id());
+                } else if (liked) {
+                    likedIds.add(card.id());
+                }
+            }
+            if (!unindexed.isEmpty()) {
+                likedIds.addAll(likeRepository.findLikedPostIds(currentUserId, unindexed));
+            }
+            // Like/unlike của chính viewer còn nằm trong buffer, chưa xuống DB
+            likeBuffer.overlay(currentUserId, postIds, likedIds);
+        }
+        Set<String> savedIds = currentUserId == null
+                ? Set.of()
+                : new HashSet<>(savedPostDetailRepository.findSavedPostIds(currentUserId, postIds));
 
+        List<PostResponse> rs = new ArrayList<>(cards.size());
+        for (PostCard card : cards) {
+            rs.add(PostResponse.builder()
+                    .id(card.id())
+                    .content(card.content())
+                    .createAt(card.createAt())
+                    .images(card.images())
+                    .comments((int) Math.max(0, card.commentCount() + postCounterService.pendingComments(card.id())))
+                    .likes((int) Math.max(0, card.likeCount() + postCounterService.pendingLikes(card.id())))
+                    .liked(likedIds.contains(card.id()))
+                    .savedPost(savedIds.contains(card.id()))
+                    .user(card.user())
+                    .build());
+        }
+        return rs;
+    }
 
     public Post toPost(UpPostRequest request) {
         if (request == null) {
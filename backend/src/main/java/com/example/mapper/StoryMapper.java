@@ -1,9 +1,10 @@
 package com.example.mapper;
 
+import com.example.dto.projection.StoryViewerRow;
 import com.example.dto.response.story.StoryResponse;
 import com.example.dto.response.story.StoryViewResponse;
+import com.example.dto.response.user.UserResponse;
 import com.example.entity.Story;
-import com.example.entity.StoryView;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -25,11 +26,16 @@ public class StoryMapper {
                 .build();
     }
 
-    public StoryViewResponse toStoryViewResponse(StoryView storyView) {
+    public StoryViewResponse toStoryViewResponse(StoryViewerRow row) {
         return StoryViewResponse.builder()
-                .id(storyView.getId())
-                .viewer(userMapper.toUserResponse(storyView.getViewer()))
-                .viewedAt(storyView.getViewedAt())
+                .id(row.viewId())
+                .viewer(UserResponse.builder()
+                        .id(row.userId())
+                        .userName(row.userName())
+                        .fullName(row.fullName())
+                        .profileImage(row.profileImage())
+                        .build())
+                .viewedAt(row.viewedAt())
                 .build();
     }
 }
@@ -1,5 +1,6 @@
 package com.example.mapper;
 
+import com.example.dto.projection.PostGridRow;
 import com.example.dto.response.user.AuthResponse;
 //import com.xuandong.ChatApp.dto.response.user.ProfileResponse;
 //import com.xuandong.ChatApp.dto.response.user.SimpleUserResponse;
@@ -69,6 +70,20 @@ public class UserMapper {
 	}
 
 
+	public PostProfileResponse toPostProfileResponse(PostGridRow row, List<PostImages> images) {
+		return PostProfileResponse.builder()
+				.id(row.id())
+				.content(row.content())
+				.createdAt(row.createAt())
+				.likeCount(row.likeCount().intValue())
+				.commentCount(row.commentCount().intValue())
+				.imageUrls(images)
+				.userId(row.userId())
+				.userName(row.userName())
+				.avatarUrl(row.avatarUrl())
+				.build();
+	}
+
 	public UserProfileResponse toUserProfileResponse(User user,
 													 boolean isFollowing,
 													 long followersCount,
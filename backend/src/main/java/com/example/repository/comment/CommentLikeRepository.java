@@ -1,11 +1,16 @@
 package com.example.repository.comment;
 
+import com.example.dto.projection.IdCount;
 import com.example.entity.CommentLike;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,4 +24,46 @@ public interface CommentLikeRepository extends JpaRepository<CommentLike, String
     
     @Query("SELECT CASE WHEN COUNT(cl) > 0 THEN true ELSE false END FROM CommentLike cl WHERE cl.comment.id = :commentId AND cl.user.id = :userId")
     boolean existsByCommentIdAndUserId(@Param("commentId") String commentId, @Param("userId") String userId);
-}
\ No newline at end of file
+
+    // Số like của từng comment trong một bài, một query GROUP BY
+    @Query("SELECT new com.example.dto.projection.IdCount(cl.comment.id, COUNT(cl)) FROM CommentLike cl " +
+           "WHERE cl.comment.post.id = :postId GROUP BY cl.comment.id")
+    List<IdCount> countByPostId(@Param("postId") String postId);
+
+    @Query("SELECT cl.comment.id FROM CommentLike cl WHERE cl.comment.post.id = :postId AND cl.user.id = :userId")
+    List<String> findLikedCommentIds(@Param("postId") String postId, @Param("userId") String userId);
+
+    @Query("SELECT new com.example.dto.projection.IdCount(cl.comment.id, COUNT(cl)) FROM CommentLike cl " +
+           "WHERE cl.comment.id IN :commentIds GROUP BY cl.comment.id")
+    List<IdCount> countByCommentIds(@Param("commentIds") Collection<String> commentIds);
+
+    @Query("SELECT cl.comment.id FROM CommentLike cl WHERE cl.user.id = :userId AND cl.comment.id IN :commentIds")
+    List<String> findLikedCommentIdsIn(@Param("userId") String userId, @Param("commentIds") Collection<String> commentIds);
+
+    // Các query theo cây con dùng cùng pattern path với CommentRepository
+    @Query("SELECT new com.example.dto.projection.IdCount(cl.comment.id, COUNT(cl)) FROM CommentLike cl " +
+           "WHERE cl.comment.post.id = :postId AND cl.comment.path LIKE :pattern GROUP BY cl.comment.id")
+    List<IdCount> countBySubtree(@Param("postId") String postId, @Param("pattern") String pattern);
+
+    @Query("SELECT cl.comment.id FROM CommentLike cl WHERE cl.user.id = :userId " +
+           "AND cl.comment.post.id = :postId AND cl.comment.path LIKE :pattern")
+    List<String> findLikedCommentIdsInSubtree(@Param("postId") String postId,
+                                              @Param("pattern") String pattern,
+                                              @Param("userId") String userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CommentLike cl WHERE cl.comment.id IN " +
+           "(SELECT c.id FROM Comment c WHERE c.post.id = :postId AND c.path LIKE :pattern)")
+    int deleteBySubtree(@Param("postId") String postId, @Param("pattern") String pattern);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CommentLike cl WHERE cl.comment.id IN :commentIds")
+    int deleteByCommentIds(@Param("commentIds") Collection<String> commentIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM CommentLike cl WHERE cl.comment.id IN (SELECT c.id FROM Comment c WHERE c.post.id = :postId)")
+    int deleteByPostId(@Param("postId") String postId);
+}
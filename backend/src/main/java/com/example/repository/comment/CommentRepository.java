@@ -1,11 +1,19 @@
 package com.example.repository.comment;
 
+import com.example.dto.projection.CommentCounters;
+import com.example.dto.projection.CommentRankRef;
+import com.example.dto.projection.CommentRow;
+import com.example.dto.projection.IdCount;
 import com.example.entity.Comment;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Pageable;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,5 +24,148 @@ public interface CommentRepository extends JpaRepository<Comment, String> {
     @Query("SELECT c FROM Comment c WHERE c.parentComment.id = :parentId")
     List<Comment> findRepliesByParentId(@Param("parentId") String parentId);
 
+    // Toàn bộ comment của bài (mọi cấp) trong một query, dùng cho CommentTreeLoader
+    @Query("SELECT new com.example.dto.projection.CommentRow(c.id, c.parentComment.id, c.content, c.createAt, " +
+           "s.id, s.userName, s.fullName, s.email, s.profileImage, s.bio) " +
+           "FROM Comment c JOIN c.sender s WHERE c.post.id = :postId ORDER BY c.createAt ASC, c.id ASC")
+    List<CommentRow> findRowsByPostId(@Param("postId") String postId);
+
+    // Comment gốc của bài theo keyset (createAt, id) tăng dần
+    @Query("SELECT new com.example.dto.projection.CommentRow(c.id, c.parentComment.id, c.content, c.createAt, " +
+           "s.id, s.userName, s.fullName, s.email, s.profileImage, s.bio) " +
+           "FROM Comment c JOIN c.sender s WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "ORDER BY c.createAt ASC, c.id ASC")
+    List<CommentRow> findTopLevelRowsFirstPage(@Param("postId") String postId, Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.CommentRow(c.id, c.parentComment.id, c.content, c.createAt, " +
+           "s.id, s.userName, s.fullName, s.email, s.profileImage, s.bio) " +
+           "FROM Comment c JOIN c.sender s WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "AND (c.createAt > :createAt OR (c.createAt = :createAt AND c.id > :id)) " +
+           "ORDER BY c.createAt ASC, c.id ASC")
+    List<CommentRow> findTopLevelRowsAfter(@Param("postId") String postId,
+                                           @Param("createAt") LocalDateTime createAt,
+                                           @Param("id") String id,
+                                           Pageable pageable);
+
+    // Comment gốc theo rank_score giảm dần ("top"), seek theo (rankScore, id)
+    @Query("SELECT new com.example.dto.projection.CommentRankRef(c.id, c.rankScore) FROM Comment c " +
+           "WHERE c.post.id = :postId AND c.parentComment IS NULL ORDER BY c.rankScore DESC, c.id DESC")
+    List<CommentRankRef> findTopRankedFirstPage(@Param("postId") String postId, Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.CommentRankRef(c.id, c.rankScore) FROM Comment c " +
+           "WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "AND (c.rankScore < :score OR (c.rankScore = :score AND c.id < :id)) " +
+           "ORDER BY c.rankScore DESC, c.id DESC")
+    List<CommentRankRef> findTopRankedAfter(@Param("postId") String postId,
+                                            @Param("score") double score,
+                                            @Param("id") String id,
+                                            Pageable pageable);
+
+    // Reply trực tiếp của một comment theo keyset (createAt, id) tăng dần
+    @Query("SELECT new com.example.dto.projection.CommentRow(c.id, c.parentComment.id, c.content, c.createAt, " +
+           "s.id, s.userName, s.fullName, s.email, s.profileImage, s.bio) " +
+           "FROM Comment c JOIN c.sender s WHERE c.parentComment.id = :parentId " +
+           "ORDER BY c.createAt ASC, c.id ASC")
+    List<CommentRow> findReplyRowsFirstPage(@Param("parentId") String parentId, Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.CommentRow(c.id, c.parentComment.id, c.content, c.createAt, " +
+           "s.id, s.userName, s.fullName, s.email, s.profileImage, s.bio) " +
+           "FROM Comment c JOIN c.sender s WHERE c.parentComment.id = :parentId " +
+           "AND (c.createAt > :createAt OR (c.createAt = :createAt AND c.id > :id)) " +
+           "ORDER BY c.createAt ASC, c.id ASC")
+    List<CommentRow> findReplyRowsAfter(@Param("parentId") String parentId,
+                                        @Param("createAt") LocalDateTime createAt,
+                                        @Param("id") String id,
+                                        Pageable pageable);
+
+    // K reply đầu tiên của mỗi comment trong danh sách, một query với ROW_NUMBER thay vì một query cho mỗi comment
+    @Query(value = "SELECT t.id FROM (SELECT c.id, ROW_NUMBER() OVER " +
+                   "(PARTITION BY c.parent_comment_id ORDER BY c.create_at, c.id) AS rn " +
+                   "FROM comment c WHERE c.parent_comment_id IN (:parentIds)) t WHERE t.rn <= :limit",
+           nativeQuery = true)
+    List<String> findFirstReplyIds(@Param("parentIds") Collection<String> parentIds, @Param("limit") int limit);
+
+    @Query("SELECT new com.example.dto.projection.CommentRow(c.id, c.parentComment.id, c.content, c.createAt, " +
+           "s.id, s.userName, s.fullName, s.email, s.profileImage, s.bio) " +
+           "FROM Comment c JOIN c.sender s WHERE c.id IN :ids ORDER BY c.createAt ASC, c.id ASC")
+    List<CommentRow> findRowsByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT new com.example.dto.projection.IdCount(c.parentComment.id, COUNT(c)) FROM Comment c " +
+           "WHERE c.parentComment.id IN :parentIds GROUP BY c.parentComment.id")
+    List<IdCount> countRepliesByParentIds(@Param("parentIds") Collection<String> parentIds);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Comment c SET c.likeCount = c.likeCount + :likeDelta, c.replyCount = c.replyCount + :replyDelta " +
+           "WHERE c.id = :id")
+    int incrementCounters(@Param("id") String id, @Param("likeDelta") long likeDelta, @Param("replyDelta") long replyDelta);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Comment c SET c.rankScore = :score WHERE c.id = :id")
+    int updateRankScore(@Param("id") String id, @Param("score") double score);
+
+    @Query("SELECT new com.example.dto.projection.CommentCounters(c.id, c.likeCount, c.replyCount, c.createAt) " +
+           "FROM Comment c WHERE c.id IN :ids")
+    List<CommentCounters> findCountersByIdIn(@Param("ids") Collection<String> ids);
+
+    // Cây con theo materialized path: pattern = path của gốc + "%", range scan trên idx_comment_path
+    @Query("SELECT new com.example.dto.projection.CommentRow(c.id, c.parentComment.id, c.content, c.createAt, " +
+           "s.id, s.userName, s.fullName, s.email, s.profileImage, s.bio) " +
+           "FROM Comment c JOIN c.sender s WHERE c.post.id = :postId AND c.path LIKE :pattern " +
+           "ORDER BY c.createAt ASC, c.id ASC")
+    List<CommentRow> findSubtreeRows(@Param("postId") String postId, @Param("pattern") String pattern);
+
+    @Query("SELECT COUNT(c) FROM Comment c WHERE c.post.id = :postId AND c.path LIKE :pattern")
+    long countSubtree(@Param("postId") String postId, @Param("pattern") String pattern);
+
+    // Reply trực tiếp của nhiều comment: duyệt cây theo từng cấp khi comment chưa được backfill path
+    @Query("SELECT c.id FROM Comment c WHERE c.parentComment.id IN :parentIds")
+    List<String> findReplyIdsByParentIds(@Param("parentIds") Collection<String> parentIds);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Comment c SET c.parentComment = NULL WHERE c.id IN :ids")
+    int detachByIdIn(@Param("ids") Collection<String> ids);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+    // Bỏ liên kết cha trước để DELETE không vướng khóa ngoại parent_comment_id dù xóa theo thứ tự nào
+    @Transactional
+    @Modifying
+    @Query("UPDATE Comment c SET c.parentComment = NULL WHERE c.post.id = :postId AND c.path LIKE :pattern")
+    int detachSubtree(@Param("postId") String postId, @Param("pattern") String pattern);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id = :postId AND c.path LIKE :pattern")
+    int deleteSubtree(@Param("postId") String postId, @Param("pattern") String pattern);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Comment c SET c.parentComment = NULL WHERE c.post.id = :postId")
+    int detachByPostId(@Param("postId") String postId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id = :postId")
+    int deleteByPostId(@Param("postId") String postId);
+
+    // Duyệt toàn bộ bảng theo id (dùng cho các job chạy theo chunk)
+    @Query("SELECT c.id FROM Comment c WHERE c.id > :lastId ORDER BY c.id")
+    List<String> findIdsAfter(@Param("lastId") String lastId, Pageable pageable);
+
     Optional<Comment> findById(@Param("id") String id);
+
+    @Query("SELECT new com.example.dto.projection.IdCount(c.post.id, COUNT(c)) FROM Comment c " +
+           "WHERE c.post.id IN :postIds GROUP BY c.post.id")
+    List<IdCount> countByPostIds(@Param("postIds") Collection<String> postIds);
+
+    // Số comment user đã viết trên bài của từng tác giả (khởi tạo affinity)
+    @Query("SELECT new com.example.dto.projection.IdCount(c.post.user.id, COUNT(c)) FROM Comment c " +
+           "WHERE c.sender.id = :userId GROUP BY c.post.user.id")
+    List<IdCount> countByAuthorForSender(@Param("userId") String userId);
 }
@@ -1,5 +1,6 @@
 package com.example.repository.follow;
 
+import com.example.dto.projection.IdCount;
 import com.example.entity.Follow;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -24,6 +25,17 @@ public interface FollowRepository extends JpaRepository<Follow, String> {
     List<Follow> findByUserId(String userId);
     List<Follow> findByFollowerId(String userId);
 
+    // Chỉ lấy id, không load entity Follow/User
+    @Query("SELECT f.follower.id FROM Follow f WHERE f.user.id = :userId")
+    List<String> findFollowerIdsByUserId(@Param("userId") String userId);
+
+    @Query("SELECT f.user.id FROM Follow f WHERE f.follower.id = :followerId")
+    List<String> findFollowingIdsByFollowerId(@Param("followerId") String followerId);
+
+    @Query("SELECT new com.example.dto.projection.IdCount(f.user.id, COUNT(f)) FROM Follow f " +
+           "GROUP BY f.user.id HAVING COUNT(f) >= :threshold")
+    List<IdCount> findFollowerCountsAtLeast(@Param("threshold") long threshold);
+
     @Transactional
     @Modifying
     @Query("DELETE FROM Follow f WHERE f.user.id = :userId AND f.follower.id = :followerId")
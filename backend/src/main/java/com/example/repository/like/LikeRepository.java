@@ -1,12 +1,76 @@
 package com.example.repository.like;
 
+import com.example.dto.projection.IdCount;
+import com.example.dto.projection.LikerRow;
 import com.example.entity.Like;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface LikeRepository extends JpaRepository<Like, String> {
     boolean existsByUserIdAndPostId(String userId, String postId);
     Optional<Like> findByUserIdAndPostId(String userId, String postId);
 
+    // Các bài (trong danh sách) mà user đã like
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<String> findLikedPostIds(@Param("userId") String userId, @Param("postIds") Collection<String> postIds);
+
+    @Query("SELECT new com.example.dto.projection.IdCount(l.post.id, COUNT(l)) FROM Like l " +
+           "WHERE l.post.id IN :postIds GROUP BY l.post.id")
+    List<IdCount> countByPostIds(@Param("postIds") Collection<String> postIds);
+
+    // Người đã like một bài, duyệt theo user id (index post_id, user_id)
+    @Query("SELECT l.user.id FROM Like l WHERE l.post.id = :postId AND l.user.id > :lastUserId ORDER BY l.user.id")
+    List<String> findLikerIdsAfter(@Param("postId") String postId, @Param("lastUserId") String lastUserId, Pageable pageable);
+
+    // Danh sách người like, chia hai nhóm: người viewer theo dõi (semi-join với Follow) và những người còn lại.
+    // Mỗi nhóm seek theo (createAt, id) trên index (post_id, create_at, id), không dùng OFFSET.
+    @Query("SELECT new com.example.dto.projection.LikerRow(l.id, l.createAt, u.id, u.userName, u.fullName, u.profileImage) " +
+           "FROM Like l JOIN l.user u WHERE l.post.id = :postId " +
+           "AND EXISTS (SELECT 1 FROM Follow f WHERE f.user = u AND f.follower.id = :viewerId) " +
+           "ORDER BY l.createAt DESC, l.id DESC")
+    List<LikerRow> findFollowedLikersFirstPage(@Param("postId") String postId,
+                                               @Param("viewerId") String viewerId,
+                                               Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.LikerRow(l.id, l.createAt, u.id, u.userName, u.fullName, u.profileImage) " +
+           "FROM Like l JOIN l.user u WHERE l.post.id = :postId " +
+           "AND EXISTS (SELECT 1 FROM Follow f WHERE f.user = u AND f.follower.id = :viewerId) " +
+           "AND (l.createAt < :createAt OR (l.createAt = :createAt AND l.id < :id)) " +
+           "ORDER BY l.createAt DESC, l.id DESC")
+    List<LikerRow> findFollowedLikersAfter(@Param("postId") String postId,
+                                           @Param("viewerId") String viewerId,
+                                           @Param("createAt") LocalDateTime createAt,
+                                           @Param("id") String id,
+                                           Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.LikerRow(l.id, l.createAt, u.id, u.userName, u.fullName, u.profileImage) " +
+           "FROM Like l JOIN l.user u WHERE l.post.id = :postId " +
+           "AND NOT EXISTS (SELECT 1 FROM Follow f WHERE f.user = u AND f.follower.id = :viewerId) " +
+           "ORDER BY l.createAt DESC, l.id DESC")
+    List<LikerRow> findOtherLikersFirstPage(@Param("postId") String postId,
+                                            @Param("viewerId") String viewerId,
+                                            Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.LikerRow(l.id, l.createAt, u.id, u.userName, u.fullName, u.profileImage) " +
+           "FROM Like l JOIN l.user u WHERE l.post.id = :postId " +
+           "AND NOT EXISTS (SELECT 1 FROM Follow f WHERE f.user = u AND f.follower.id = :viewerId) " +
+           "AND (l.createAt < :createAt OR (l.createAt = :createAt AND l.id < :id)) " +
+           "ORDER BY l.createAt DESC, l.id DESC")
+    List<LikerRow> findOtherLikersAfter(@Param("postId") String postId,
+                                        @Param("viewerId") String viewerId,
+                                        @Param("createAt") LocalDateTime createAt,
+                                        @Param("id") String id,
+                                        Pageable pageable);
+
+    // Số lần user đã like bài của từng tác giả (khởi tạo affinity)
+    @Query("SELECT new com.example.dto.projection.IdCount(l.post.user.id, COUNT(l)) FROM Like l " +
+           "WHERE l.user.id = :userId GROUP BY l.post.user.id")
+    List<IdCount> countByAuthorForUser(@Param("userId") String userId);
 }
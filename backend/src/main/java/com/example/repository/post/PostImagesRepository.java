@@ -1,7 +1,17 @@
 package com.example.repository.post;
+import com.example.dto.projection.PostImageRow;
 import com.example.entity.PostImages;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PostImagesRepository extends JpaRepository<PostImages, String> {
 
-}
\ No newline at end of file
+    // Lấy ảnh của nhiều bài trong một lần
+    @Query("SELECT new com.example.dto.projection.PostImageRow(i.post.id, i.id, i.urlImage) FROM post_image i " +
+           "WHERE i.post.id IN :postIds ORDER BY i.post.id, i.id")
+    List<PostImageRow> findRowsByPostIds(@Param("postIds") Collection<String> postIds);
+}
@@ -1,13 +1,103 @@
 package com.example.repository.post;
 
+import com.example.dto.projection.PostCounters;
+import com.example.dto.projection.PostGridRow;
+import com.example.dto.projection.PostRef;
+import com.example.dto.projection.RankCandidate;
 import com.example.entity.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PostRepository extends JpaRepository<Post, String> {
+    @EntityGraph(Post.GRAPH_PROFILE_GRID)
     List<Post> findByUser_Id(String userId);
+
+    @EntityGraph(Post.GRAPH_FEED_CARD)
     List<Post> findByUser_IdNot(String userId, Sort sort);
 
+    // Hydrate các bài lấy từ timeline
+    @EntityGraph(Post.GRAPH_FEED_CARD)
+    List<Post> findByIdIn(Collection<String> ids);
+
+    @EntityGraph(Post.GRAPH_DETAIL)
+    Optional<Post> findDetailById(String id);
+
+    // Trang đầu của feed (keyset pagination), chỉ lấy id; nội dung bài lấy từ PostCardCache
+    @Query("SELECT new com.example.dto.projection.PostRef(p.id, p.createAt) FROM Post p " +
+           "WHERE p.user.id <> :userId ORDER BY p.createAt DESC, p.id DESC")
+    List<PostRef> findFeedFirstPage(@Param("userId") String userId, Pageable pageable);
+
+    // Các trang tiếp theo: seek từ cursor (createAt, id), không dùng OFFSET
+    @Query("SELECT new com.example.dto.projection.PostRef(p.id, p.createAt) FROM Post p WHERE p.user.id <> :userId " +
+           "AND (p.createAt < :createAt OR (p.createAt = :createAt AND p.id < :id)) " +
+           "ORDER BY p.createAt DESC, p.id DESC")
+    List<PostRef> findFeedPageAfter(@Param("userId") String userId,
+                                    @Param("createAt") LocalDateTime createAt,
+                                    @Param("id") String id,
+                                    Pageable pageable);
+
+    // Bài mới hơn cursor, seek ngược lên theo index (createAt, id): chi phí theo số bài mới
+    @Query("SELECT new com.example.dto.projection.PostRef(p.id, p.createAt) FROM Post p WHERE p.user.id <> :userId " +
+           "AND (p.createAt > :createAt OR (p.createAt = :createAt AND p.id > :id)) " +
+           "ORDER BY p.createAt ASC, p.id ASC")
+    List<PostRef> findFeedRefsNewer(@Param("userId") String userId,
+                                    @Param("createAt") LocalDateTime createAt,
+                                    @Param("id") String id,
+                                    Pageable pageable);
+
+    // Cột đếm của các bài trên một trang: lookup theo khóa chính, ghép vào card lấy từ cache
+    @Query("SELECT new com.example.dto.projection.PostCounters(p.id, p.likeCount, p.commentCount) FROM Post p " +
+           "WHERE p.id IN :ids")
+    List<PostCounters> findCountersByIdIn(@Param("ids") Collection<String> ids);
+
+    // Dùng cho timeline: chỉ cần (id, createAt)
+    @Query("SELECT new com.example.dto.projection.PostRef(p.id, p.createAt) FROM Post p " +
+           "WHERE p.user.id = :userId ORDER BY p.createAt DESC, p.id DESC")
+    List<PostRef> findPostRefsByAuthor(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.PostRef(p.id, p.createAt) FROM Post p " +
+           "WHERE p.user.id IN :userIds ORDER BY p.createAt DESC, p.id DESC")
+    List<PostRef> findPostRefsByAuthors(@Param("userIds") Collection<String> userIds, Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.PostRef(p.id, p.createAt) FROM Post p " +
+           "WHERE p.user.id IN :userIds " +
+           "AND (p.createAt < :createAt OR (p.createAt = :createAt AND p.id < :id)) " +
+           "ORDER BY p.createAt DESC, p.id DESC")
+    List<PostRef> findPostRefsByAuthorsBefore(@Param("userIds") Collection<String> userIds,
+                                              @Param("createAt") LocalDateTime createAt,
+                                              @Param("id") String id,
+                                              Pageable pageable);
+
+    @Query("SELECT new com.example.dto.projection.PostRef(p.id, p.createAt) FROM Post p " +
+           "WHERE p.user.id IN :userIds " +
+           "AND (p.createAt > :createAt OR (p.createAt = :createAt AND p.id > :id)) " +
+           "ORDER BY p.createAt ASC, p.id ASC")
+    List<PostRef> findPostRefsByAuthorsNewer(@Param("userIds") Collection<String> userIds,
+                                             @Param("createAt") LocalDateTime createAt,
+                                             @Param("id") String id,
+                                             Pageable pageable);
+
+    // Tập ứng viên cho ranking: chỉ các cột cần để chấm điểm
+    @Query("SELECT new com.example.dto.projection.RankCandidate(p.id, p.user.id, p.createAt, p.likeCount, p.commentCount) " +
+           "FROM Post p WHERE p.user.id <> :userId ORDER BY p.createAt DESC, p.id DESC")
+    List<RankCandidate> findRankCandidates(@Param("userId") String userId, Pageable pageable);
+
+    // Duyệt toàn bộ bảng theo id (dùng cho các job chạy theo chunk)
+    @Query("SELECT p.id FROM Post p WHERE p.id > :lastId ORDER BY p.id")
+    List<String> findIdsAfter(@Param("lastId") String lastId, Pageable pageable);
+
+    // Lưới bài viết trang cá nhân: projection, không load entity và các collection
+    @Query("SELECT new com.example.dto.projection.PostGridRow(p.id, p.content, p.createAt, p.likeCount, p.commentCount, " +
+           "u.id, u.userName, u.profileImage) FROM Post p JOIN p.user u " +
+           "WHERE u.id = :userId ORDER BY p.createAt DESC, p.id DESC")
+    List<PostGridRow> findGridRowsByUser(@Param("userId") String userId);
 }
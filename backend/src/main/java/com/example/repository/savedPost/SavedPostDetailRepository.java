@@ -1,19 +1,34 @@
 package com.example.repository.savedPost;
 
+import com.example.dto.projection.PostGridRow;
 import com.example.entity.Post;
 import com.example.entity.SavedPost;
 import com.example.entity.SavedPostDetail;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface SavedPostDetailRepository extends JpaRepository<SavedPostDetail, String> {
     Optional<SavedPostDetail> findBySavedPostAndPost(SavedPost savedPost , Post post);
 
+    @EntityGraph(attributePaths = {"post", "post.user"})
     List<SavedPostDetail> findBySavedPost(SavedPost savedPost );
 
     boolean existsBySavedPost(SavedPost savedPost);
 
     List<SavedPostDetail> findBySavedPost_User_Id(String userId);
-}
\ No newline at end of file
+
+    // Các bài (trong danh sách) mà user đã lưu
+    @Query("SELECT d.post.id FROM SavedPostDetail d WHERE d.savedPost.user.id = :userId AND d.post.id IN :postIds")
+    List<String> findSavedPostIds(@Param("userId") String userId, @Param("postIds") Collection<String> postIds);
+
+    @Query("SELECT new com.example.dto.projection.PostGridRow(p.id, p.content, p.createAt, p.likeCount, p.commentCount, " +
+           "u.id, u.userName, u.profileImage) FROM SavedPostDetail d JOIN d.post p JOIN p.user u " +
+           "WHERE d.savedPost.user.id = :userId ORDER BY p.createAt DESC, p.id DESC")
+    List<PostGridRow> findSavedGridRowsByUser(@Param("userId") String userId);
+}
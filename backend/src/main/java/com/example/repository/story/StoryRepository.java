@@ -1,7 +1,11 @@
 package com.example.repository.story;
 
+import com.example.dto.projection.ExpiredStory;
+import com.example.dto.projection.StoryAuthor;
+import com.example.dto.projection.StoryTrayEntry;
 import com.example.entity.Story;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,33 +13,53 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StoryRepository extends JpaRepository<Story, String> {
     
     // Lấy tất cả stories của user (chưa hết hạn)
-    @Query("SELECT s FROM Story s WHERE s.user.id = :userId AND s.expiresAt > :now ORDER BY s.createdAt DESC")
+    @Query("SELECT s FROM Story s JOIN FETCH s.user WHERE s.user.id = :userId AND s.expiresAt > :now ORDER BY s.createdAt DESC")
     List<Story> findActiveStoriesByUserId(@Param("userId") String userId, @Param("now") LocalDateTime now);
 
-    // Lấy stories của những người đang follow (chưa hết hạn)
-    @Query("SELECT s FROM Story s WHERE s.user.id IN " +
-           "(SELECT f.user.id FROM Follow f WHERE f.follower.id = :currentUserId) " +
-           "AND s.expiresAt > :now ORDER BY s.createdAt DESC")
-    List<Story> findActiveStoriesFromFollowing(@Param("currentUserId") String currentUserId, @Param("now") LocalDateTime now);
-
     // Lấy tất cả stories active (chưa hết hạn)
-    @Query("SELECT s FROM Story s WHERE s.expiresAt > :now ORDER BY s.createdAt DESC")
+    @Query("SELECT s FROM Story s JOIN FETCH s.user WHERE s.expiresAt > :now ORDER BY s.createdAt DESC")
     List<Story> findAllActiveStories(@Param("now") LocalDateTime now);
 
-    // Xóa stories đã hết hạn
+    // Story active của các tác giả đã biết trước (lấy từ StoryTrayCache), không cần subquery follow
+    @Query("SELECT s FROM Story s JOIN FETCH s.user WHERE s.user.id IN :userIds AND s.expiresAt > :now " +
+           "ORDER BY s.createdAt ASC")
+    List<Story> findActiveStoriesByUserIds(@Param("userIds") Collection<String> userIds, @Param("now") LocalDateTime now);
+
+    // Story mới nhất của mỗi tác giả đang có story active (story mới nhất cũng là story hết hạn muộn nhất)
+    @Query("SELECT new com.example.dto.projection.StoryTrayEntry(s.user.id, MAX(s.createdAt), MAX(s.expiresAt)) " +
+           "FROM Story s WHERE s.expiresAt > :now GROUP BY s.user.id")
+    List<StoryTrayEntry> findAllTrayEntries(@Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.example.dto.projection.StoryTrayEntry(s.user.id, MAX(s.createdAt), MAX(s.expiresAt)) " +
+           "FROM Story s WHERE s.user.id = :userId AND s.expiresAt > :now GROUP BY s.user.id")
+    List<StoryTrayEntry> findTrayEntries(@Param("userId") String userId, @Param("now") LocalDateTime now);
+
+    // Tổng lượt xem đếm sẵn, không COUNT lại bảng story_views
+    @Query("SELECT s.viewCount FROM Story s WHERE s.id = :storyId")
+    Optional<Long> findViewCount(@Param("storyId") String storyId);
+
+    // Story đã hết hạn theo thứ tự hết hạn: range scan trên idx_stories_expires_at, dừng ngay ở :now
+    @Query("SELECT new com.example.dto.projection.ExpiredStory(s.id, s.user.id, s.mediaUrl) FROM Story s " +
+           "WHERE s.expiresAt <= :now ORDER BY s.expiresAt, s.id")
+    List<ExpiredStory> findExpired(@Param("now") LocalDateTime now, Pageable pageable);
+
     @Transactional
     @Modifying
-    @Query("DELETE FROM Story s WHERE s.expiresAt < :now")
-    void deleteExpiredStories(@Param("now") LocalDateTime now);
+    @Query("DELETE FROM Story s WHERE s.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
 
     // Đếm số stories active của user
     @Query("SELECT COUNT(s) FROM Story s WHERE s.user.id = :userId AND s.expiresAt > :now")
     long countActiveStoriesByUserId(@Param("userId") String userId, @Param("now") LocalDateTime now);
-}
 
+    @Query("SELECT new com.example.dto.projection.StoryAuthor(s.id, s.user.id) FROM Story s WHERE s.id IN :ids")
+    List<StoryAuthor> findAuthors(@Param("ids") Collection<String> ids);
+}
@@ -1,12 +1,19 @@
 package com.example.repository.story;
 
+import com.example.dto.projection.IdCount;
+import com.example.dto.projection.StoryViewerRow;
 import com.example.entity.Story;
 import com.example.entity.StoryView;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +23,25 @@ public interface StoryViewRepository extends JpaRepository<StoryView, String> {
     // Kiểm tra xem user đã xem story chưa
     Optional<StoryView> findByStoryIdAndViewerId(String storyId, String viewerId);
 
-    // Lấy danh sách người đã xem story
-    @Query("SELECT sv FROM StoryView sv WHERE sv.story.id = :storyId ORDER BY sv.viewedAt DESC")
-    List<StoryView> findByStoryId(@Param("storyId") String storyId);
+    // Lấy danh sách người đã xem story: một query join, chỉ lấy các cột hiển thị của viewer
+    @Query("SELECT new com.example.dto.projection.StoryViewerRow(sv.id, sv.viewedAt, u.id, u.userName, u.fullName, u.profileImage) " +
+           "FROM StoryView sv JOIN sv.viewer u WHERE sv.story.id = :storyId ORDER BY sv.viewedAt DESC, sv.id DESC")
+    List<StoryViewerRow> findViewerRows(@Param("storyId") String storyId);
+
+    // Trang đầu danh sách người xem (keyset pagination)
+    @Query("SELECT new com.example.dto.projection.StoryViewerRow(sv.id, sv.viewedAt, u.id, u.userName, u.fullName, u.profileImage) " +
+           "FROM StoryView sv JOIN sv.viewer u WHERE sv.story.id = :storyId ORDER BY sv.viewedAt DESC, sv.id DESC")
+    List<StoryViewerRow> findViewersFirstPage(@Param("storyId") String storyId, Pageable pageable);
+
+    // Các trang tiếp theo: seek từ cursor (viewedAt, id), không dùng OFFSET
+    @Query("SELECT new com.example.dto.projection.StoryViewerRow(sv.id, sv.viewedAt, u.id, u.userName, u.fullName, u.profileImage) " +
+           "FROM StoryView sv JOIN sv.viewer u WHERE sv.story.id = :storyId " +
+           "AND (sv.viewedAt < :viewedAt OR (sv.viewedAt = :viewedAt AND sv.id < :id)) " +
+           "ORDER BY sv.viewedAt DESC, sv.id DESC")
+    List<StoryViewerRow> findViewersAfter(@Param("storyId") String storyId,
+                                          @Param("viewedAt") LocalDateTime viewedAt,
+                                          @Param("id") String id,
+                                          Pageable pageable);
 
     // Đếm số lượt xem của story
     long countByStoryId(String storyId);
@@ -26,5 +49,28 @@ public interface StoryViewRepository extends JpaRepository<StoryView, String> {
     // Lấy danh sách stories đã xem của user
     @Query("SELECT sv.story FROM StoryView sv WHERE sv.viewer.id = :viewerId ORDER BY sv.viewedAt DESC")
     List<Story> findViewedStoriesByViewerId(@Param("viewerId") String viewerId);
-}
 
+    // Số story của từng tác giả mà user đã xem (khởi tạo affinity)
+    @Query("SELECT new com.example.dto.projection.IdCount(sv.story.user.id, COUNT(sv)) FROM StoryView sv " +
+           "WHERE sv.viewer.id = :viewerId GROUP BY sv.story.user.id")
+    List<IdCount> countByAuthorForViewer(@Param("viewerId") String viewerId);
+
+    // Những story (trong danh sách) mà viewer đã xem
+    @Query("SELECT sv.story.id FROM StoryView sv WHERE sv.viewer.id = :viewerId AND sv.story.id IN :storyIds")
+    List<String> findViewedStoryIds(@Param("viewerId") String viewerId, @Param("storyIds") Collection<String> storyIds);
+
+    // id lượt xem của các story, lấy theo chunk để xóa mà không khóa một lượng lớn dòng cùng lúc
+    @Query("SELECT sv.id FROM StoryView sv WHERE sv.story.id IN :storyIds")
+    List<String> findIdsByStoryIds(@Param("storyIds") Collection<String> storyIds, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoryView sv WHERE sv.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+    // Xóa lượt xem của một story trước khi xóa story (story_views.story_id là khóa ngoại)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoryView sv WHERE sv.story.id = :storyId")
+    int deleteByStoryId(@Param("storyId") String storyId);
+}
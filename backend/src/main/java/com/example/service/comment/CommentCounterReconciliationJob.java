@@ -0,0 +1,86 @@
+package com.example.service.comment;
+
+import com.example.entity.Comment;
+import com.example.repository.comment.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Đối soát like_count / reply_count / rank_score của comment với bảng nguồn theo từng khoảng id.
+ * Số đếm và điểm được tính ngay trong câu UPDATE: InnoDB khóa các dòng được đọc trong lúc câu lệnh chạy,
+ * nên like / reply ghi bởi {@link CommentService} không thể chen vào giữa lúc đếm và lúc ghi rồi bị ghi đè.
+ * Khi khởi động chỉ backfill các comment có từ trước khi thêm cột (rank_score vẫn là 0).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CommentCounterReconciliationJob {
+    private static final String LIKE_COUNT = "COALESCE(l.n, 0)";
+    private static final String REPLY_COUNT = "COALESCE(r.n, 0)";
+    // Bảng dẫn xuất để MySQL cho phép đếm reply trên chính bảng comment đang được cập nhật
+    private static final String RECONCILE_SQL = "UPDATE comment c " +
+            "LEFT JOIN (SELECT comment_id, COUNT(*) AS n FROM comment_like " +
+            "WHERE comment_id > ? AND comment_id <= ? GROUP BY comment_id) l ON l.comment_id = c.id " +
+            "LEFT JOIN (SELECT parent_comment_id, COUNT(*) AS n FROM comment " +
+            "WHERE parent_comment_id > ? AND parent_comment_id <= ? GROUP BY parent_comment_id) r ON r.parent_comment_id = c.id " +
+            "SET c.like_count = " + LIKE_COUNT + ", c.reply_count = " + REPLY_COUNT + ", " +
+            "c.rank_score = " + Comment.rankScoreSql(LIKE_COUNT, REPLY_COUNT, "c.create_at") + " " +
+            "WHERE c.id > ? AND c.id <= ?";
+    private static final String SELECT_UNSCORED_SQL = "SELECT id FROM comment WHERE rank_score = 0 AND id > ? ORDER BY id LIMIT ?";
+
+    private final CommentRepository commentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    // Lần chạy lúc khởi động và lần chạy theo lịch không chạy chồng lên nhau
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${comment.counter.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        run("backfill", lastId -> jdbcTemplate.queryForList(SELECT_UNSCORED_SQL, String.class, lastId, chunkSize));
+    }
+
+    @Scheduled(cron = "${comment.counter.reconcile-cron:0 45 3 * * *}")
+    public void reconcile() {
+        run("reconcile", lastId -> commentRepository.findIdsAfter(lastId, PageRequest.of(0, chunkSize)));
+    }
+
+    private void run(String name, Function<String, List<String>> nextChunk) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Comment counter {} skipped, another run is in progress", name);
+            return;
+        }
+        try {
+            String lastId = "";
+            int total = 0;
+            while (true) {
+                List<String> ids = nextChunk.apply(lastId);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                String toId = ids.get(ids.size() - 1);
+                total += jdbcTemplate.update(RECONCILE_SQL, lastId, toId, lastId, toId, lastId, toId);
+                lastId = toId;
+            }
+            if (total > 0) {
+                log.info("Comment counter {} updated {} comments", name, total);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+}
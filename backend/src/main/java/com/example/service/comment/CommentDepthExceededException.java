@@ -0,0 +1,10 @@
+package com.example.service.comment;
+
+/**
+ * Reply vào một comment đã ở độ sâu tối đa ({@link com.example.entity.Comment#MAX_DEPTH}).
+ */
+public class CommentDepthExceededException extends RuntimeException {
+    public CommentDepthExceededException(int maxDepth) {
+        super("Reply depth limit reached: " + maxDepth);
+    }
+}
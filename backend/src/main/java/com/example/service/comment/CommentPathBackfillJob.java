@@ -0,0 +1,58 @@
+package com.example.service.comment;
+
+import com.example.entity.Comment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Điền path / depth cho các comment có từ trước khi thêm materialized path.
+ * Chạy từng tầng: comment gốc trước, sau đó các comment có cha đã có path, cho tới khi không còn dòng nào.
+ * Idempotent, chạy nền mỗi lần khởi động; khi đã backfill xong chỉ tốn một query mỗi loại.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CommentPathBackfillJob {
+    private static final String SELECT_ROOTS_SQL =
+            "SELECT id FROM comment WHERE path IS NULL AND parent_comment_id IS NULL LIMIT ?";
+    private static final String SELECT_CHILDREN_SQL =
+            "SELECT c.id, p.path, p.depth FROM comment c JOIN comment p ON p.id = c.parent_comment_id " +
+            "WHERE c.path IS NULL AND p.path IS NOT NULL LIMIT ?";
+    private static final String UPDATE_SQL = "UPDATE comment SET path = ?, depth = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${comment.path.backfill-chunk-size:500}")
+    private int chunkSize;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(SELECT_ROOTS_SQL,
+                    (rs, i) -> new Object[]{Comment.newPathSegment() + "/", 0, rs.getString("id")}, chunkSize);
+            if (rows.isEmpty()) {
+                rows = jdbcTemplate.query(SELECT_CHILDREN_SQL,
+                        (rs, i) -> new Object[]{rs.getString("path") + Comment.newPathSegment() + "/",
+                                rs.getInt("depth") + 1, rs.getString("id")}, chunkSize);
+            }
+            if (rows.isEmpty()) {
+                break;
+            }
+            jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+            total += rows.size();
+        }
+        if (total > 0) {
+            log.info("Backfilled materialized path of {} comments", total);
+        }
+    }
+}
@@ -1,42 +1,156 @@
 package com.example.service.comment;
 
+import com.example.dto.projection.CommentCounters;
+import com.example.dto.projection.CommentRankRef;
+import com.example.dto.projection.CommentRow;
 import com.example.dto.request.CommentRequestDTO;
+import com.example.dto.response.CursorPageResponse;
 import com.example.dto.response.user.CommentResponseDTO;
 import com.example.entity.Comment;
 import com.example.entity.CommentLike;
 import com.example.entity.Post;
 import com.example.entity.User;
-import com.example.mapper.CommentMapper;
+import com.example.event.CommentAddedEvent;
+import com.example.event.EngagementEvent;
 import com.example.repository.comment.CommentLikeRepository;
 import com.example.repository.comment.CommentRepository;
 import com.example.repository.post.PostRepository;
 import com.example.repository.user.UserRepository;
+import com.example.service.post.PostCounterService;
+import com.example.utils.KeysetCursor;
+import com.example.utils.ScoreCursor;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
+    public static final int DEFAULT_COMMENT_PAGE_SIZE = 20;
+    public static final int DEFAULT_REPLY_PAGE_SIZE = 10;
+    public static final int MAX_COMMENT_PAGE_SIZE = 50;
+    // Số reply đầu tiên được inline vào mỗi comment gốc, phần còn lại tải qua getReplies
+    public static final int REPLY_PREVIEW_SIZE = 2;
+    public static final String SORT_RECENT = "recent";
+    public static final String SORT_TOP = "top";
+
     private final CommentRepository commentRepository;
     private final CommentLikeRepository commentLikeRepository;
-    private final CommentMapper commentMapper;
+    private final CommentTreeLoader commentTreeLoader;
     private final UserRepository userRepository;
     private final PostRepository postRepository;
+    private final PostCounterService postCounterService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<CommentResponseDTO> getCommentInPost(String postId) {
         return getCommentInPost(postId, null);
     }
 
     public List<CommentResponseDTO> getCommentInPost(String postId, String currentUserId) {
-        List<Comment> parentComments = commentRepository.findParentCommentsByPostId(postId);
+        // Cả cây trong 3 query thay vì load replies + đếm like cho từng comment
+        return commentTreeLoader.loadPostTree(postId, currentUserId);
+    }
+
+    /**
+     * Trang comment gốc, mỗi comment kèm replyCount và {@link #REPLY_PREVIEW_SIZE} reply đầu tiên.
+     * Mặc định theo keyset (createAt, id) tăng dần; {@link #SORT_TOP} sắp theo rank_score giảm dần.
+     *
+     * @throws IllegalArgumentException nếu cursor không hợp lệ
+     */
+    public CursorPageResponse<CommentResponseDTO> getCommentPage(String postId, String currentUserId,
+                                                                 String cursor, int size, String sort) {
+        if (SORT_TOP.equals(sort)) {
+            return getTopCommentPage(postId, currentUserId, cursor, size);
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int limit = Math.min(Math.max(size, 1), MAX_COMMENT_PAGE_SIZE);
+        // Lấy dư 1 phần tử để biết còn trang sau hay không
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<CommentRow> rows = after == null
+                ? commentRepository.findTopLevelRowsFirstPage(postId, page)
+                : commentRepository.findTopLevelRowsAfter(postId, after.timestamp(), after.id(), page);
+        return toPage(rows, limit, commentTreeLoader.loadThreads(trim(rows, limit), REPLY_PREVIEW_SIZE, currentUserId));
+    }
+
+    // Sắp theo rank_score: lấy (id, score) từ index trước, sau đó mới nạp nội dung của đúng các comment trong trang
+    private CursorPageResponse<CommentResponseDTO> getTopCommentPage(String postId, String currentUserId,
+                                                                     String cursor, int size) {
+        ScoreCursor after = ScoreCursor.decode(cursor);
+        int limit = Math.min(Math.max(size, 1), MAX_COMMENT_PAGE_SIZE);
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<CommentRankRef> refs = after == null
+                ? commentRepository.findTopRankedFirstPage(postId, page)
+                : commentRepository.findTopRankedAfter(postId, after.score(), after.id(), page);
+
+        boolean hasMore = refs.size() > limit;
+        if (hasMore) {
+            refs = refs.subList(0, limit);
+        }
+
+        Map<String, Integer> position = new HashMap<>();
+        for (int i = 0; i < refs.size(); i++) {
+            position.put(refs.get(i).id(), i);
+        }
+        List<CommentRow> rows = refs.isEmpty()
+                ? List.of()
+                : commentRepository.findRowsByIdIn(position.keySet()).stream()
+                        .sorted(Comparator.comparing(row -> position.get(row.id())))
+                        .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            CommentRankRef last = refs.get(refs.size() - 1);
+            nextCursor = new ScoreCursor(last.rankScore(), last.id()).encode();
+        }
+        return CursorPageResponse.<CommentResponseDTO>builder()
+                .items(commentTreeLoader.loadThreads(rows, REPLY_PREVIEW_SIZE, currentUserId))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Trang reply trực tiếp của một comment ("xem thêm câu trả lời").
+     *
+     * @throws IllegalArgumentException nếu cursor không hợp lệ
+     */
+    public CursorPageResponse<CommentResponseDTO> getReplies(String commentId, String currentUserId,
+                                                             String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int limit = Math.min(Math.max(size, 1), MAX_COMMENT_PAGE_SIZE);
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<CommentRow> rows = after == null
+                ? commentRepository.findReplyRowsFirstPage(commentId, page)
+                : commentRepository.findReplyRowsAfter(commentId, after.timestamp(), after.id(), page);
+        return toPage(rows, limit, commentTreeLoader.loadReplies(trim(rows, limit), currentUserId));
+    }
 
-        return parentComments.stream()
-                .map(comment -> convertCommentToResponse(comment, currentUserId)).toList();
+    private static List<CommentRow> trim(List<CommentRow> rows, int limit) {
+        return rows.size() > limit ? rows.subList(0, limit) : rows;
+    }
+
+    private static CursorPageResponse<CommentResponseDTO> toPage(List<CommentRow> rows, int limit,
+                                                                 List<CommentResponseDTO> items) {
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            CommentRow last = rows.get(limit - 1);
+            nextCursor = new KeysetCursor(last.createAt(), last.id()).encode();
+        }
+        return CursorPageResponse.<CommentResponseDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .build();
     }
 
     // Chuyển đổi Comment -> CommentResponse và lấy replies
@@ -45,10 +159,11 @@ public class CommentService {
     }
 
     private CommentResponseDTO convertCommentToResponse(Comment parentComment, String currentUserId) {
-        List<Comment> replies = commentRepository.findRepliesByParentId(parentComment.getId());
-        return commentMapper.mapToDto(parentComment, replies, currentUserId);
+        return commentTreeLoader.loadSubtree(parentComment.getPost().getId(), parentComment.getId(),
+                parentComment.getPath(), currentUserId);
     }
 
+    @Transactional
     public CommentResponseDTO addComment(CommentRequestDTO commentRequestDTO){
         User user = userRepository.findById(commentRequestDTO.getSenderId()).orElseThrow(EntityNotFoundException::new);
         Post post = postRepository.findById(commentRequestDTO.getPostId()).orElseThrow(EntityNotFoundException::new);
@@ -58,10 +173,21 @@ public class CommentService {
         comment.setContent(commentRequestDTO.getContent());
         if(commentRequestDTO.getParentCommentId() != null && !commentRequestDTO.getParentCommentId().trim().isEmpty()){
             Comment commentParent = commentRepository.findById(commentRequestDTO.getParentCommentId()).orElseThrow(EntityNotFoundException::new);
+            // path có độ dài giới hạn: từ chối thay vì lặng lẽ gắn reply vào comment khác
+            if (commentParent.getDepth() != null && commentParent.getDepth() + 1 >= Comment.MAX_DEPTH) {
+                throw new CommentDepthExceededException(Comment.MAX_DEPTH);
+            }
             comment.setParentComment(commentParent);
         }
         commentRepository.save(comment);
-        return convertCommentToResponse(comment, commentRequestDTO.getSenderId());
+        if (comment.getParentComment() != null) {
+            adjustCounters(comment.getParentComment().getId(), 0, 1);
+        }
+        postCounterService.incrementComments(post.getId(), 1);
+        eventPublisher.publishEvent(new EngagementEvent(user.getId(), post.getUser().getId(), EngagementEvent.Type.COMMENT));
+        CommentResponseDTO response = convertCommentToResponse(comment, commentRequestDTO.getSenderId());
+        eventPublisher.publishEvent(new CommentAddedEvent(post.getId(), response));
+        return response;
     }
 
     public CommentResponseDTO modifyComment(String commentId, String content){
@@ -76,10 +202,38 @@ public class CommentService {
         return convertCommentToResponse(curentComment);
     }
 
+    @Transactional
     public void deleteComment(String commentId) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(EntityNotFoundException::new);
-        commentRepository.delete(comment);
+        String postId = comment.getPost().getId();
+        long removed = comment.getPath() == null
+                ? deleteByParentLinks(commentId)
+                : deleteByPath(postId, comment.getPath());
+        if (comment.getParentComment() != null) {
+            adjustCounters(comment.getParentComment().getId(), 0, -1);
+        }
+        postCounterService.incrementComments(postId, -removed);
+    }
+
+    // Cả thread là một range theo path: đếm, xóa like, bỏ liên kết cha rồi xóa, không load cây vào bộ nhớ
+    private long deleteByPath(String postId, String path) {
+        String pattern = path + "%";
+        long removed = commentRepository.countSubtree(postId, pattern);
+        commentLikeRepository.deleteBySubtree(postId, pattern);
+        commentRepository.detachSubtree(postId, pattern);
+        commentRepository.deleteSubtree(postId, pattern);
+        return removed;
+    }
+
+    // Comment chưa backfill path: gom id cây con theo parent_comment_id rồi xóa theo chunk id;
+    // bỏ liên kết cha của cả cây trước khi xóa chunk nào để không vướng khóa ngoại
+    private long deleteByParentLinks(String commentId) {
+        List<List<String>> chunks = CommentTreeLoader.chunks(commentTreeLoader.subtreeIds(commentId));
+        chunks.forEach(commentLikeRepository::deleteByCommentIds);
+        chunks.forEach(commentRepository::detachByIdIn);
+        chunks.forEach(commentRepository::deleteByIdIn);
+        return chunks.stream().mapToLong(List::size).sum();
     }
 
     @Transactional
@@ -95,17 +249,28 @@ public class CommentService {
         if (existingLike.isPresent()) {
             // Unlike: remove existing like
             commentLikeRepository.delete(existingLike.get());
+            adjustCounters(commentId, -1, 0);
         } else {
             // Like: create new like
             CommentLike newLike = new CommentLike();
             newLike.setComment(comment);
             newLike.setUser(user);
             commentLikeRepository.save(newLike);
+            adjustCounters(commentId, 1, 0);
         }
 
         return convertCommentToResponse(comment, userId);
     }
 
+    // UPDATE giữ khóa dòng tới hết transaction nên giá trị đọc lại để tính điểm không bị ghi đè bởi request khác
+    private void adjustCounters(String commentId, long likeDelta, long replyDelta) {
+        commentRepository.incrementCounters(commentId, likeDelta, replyDelta);
+        for (CommentCounters counters : commentRepository.findCountersByIdIn(List.of(commentId))) {
+            commentRepository.updateRankScore(commentId,
+                    Comment.computeRankScore(counters.likeCount(), counters.replyCount(), counters.createAt()));
+        }
+    }
+
     public boolean isCommentLikedByUser(String commentId, String userId) {
         return commentLikeRepository.existsByCommentIdAndUserId(commentId, userId);
     }
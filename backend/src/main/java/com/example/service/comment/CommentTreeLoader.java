@@ -0,0 +1,198 @@
+package com.example.service.comment;
+
+import com.example.dto.projection.CommentRow;
+import com.example.dto.projection.IdCount;
+import com.example.dto.response.user.CommentResponseDTO;
+import com.example.mapper.CommentMapper;
+import com.example.repository.comment.CommentLikeRepository;
+import com.example.repository.comment.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dựng cây comment với số câu SQL cố định:
+ * một query lấy comment (kèm người gửi), một query đếm like theo nhóm
+ * và một query lấy các comment viewer đã like. Cây được ghép trong bộ nhớ trong O(N).
+ */
+@Service
+@RequiredArgsConstructor
+public class CommentTreeLoader {
+    private static final int ID_CHUNK = 500;
+
+    private final CommentRepository commentRepository;
+    private final CommentLikeRepository commentLikeRepository;
+    private final CommentMapper commentMapper;
+
+    public List<CommentResponseDTO> loadPostTree(String postId, String currentUserId) {
+        List<CommentRow> rows = commentRepository.findRowsByPostId(postId);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Set<String> liked = currentUserId == null
+                ? Set.of()
+                : new HashSet<>(commentLikeRepository.findLikedCommentIds(postId, currentUserId));
+        return assemble(rows, toMap(commentLikeRepository.countByPostId(postId)), liked);
+    }
+
+    /**
+     * Một comment kèm toàn bộ cây con, lấy bằng range theo materialized path thay vì đi từng cấp.
+     * Comment chưa có path (chưa backfill) thì đi theo parent_comment_id, mỗi cấp một query.
+     */
+    public CommentResponseDTO loadSubtree(String postId, String commentId, String path, String currentUserId) {
+        if (path == null) {
+            List<String> ids = subtreeIds(commentId);
+            List<CommentRow> rows = new ArrayList<>(ids.size());
+            Map<String, Long> likeCounts = new HashMap<>();
+            Set<String> liked = new HashSet<>();
+            for (List<String> chunk : chunks(ids)) {
+                rows.addAll(commentRepository.findRowsByIdIn(chunk));
+                likeCounts.putAll(toMap(commentLikeRepository.countByCommentIds(chunk)));
+                if (currentUserId != null) {
+                    liked.addAll(commentLikeRepository.findLikedCommentIdsIn(currentUserId, chunk));
+                }
+            }
+            rows.sort(Comparator.comparing(CommentRow::createAt).thenComparing(CommentRow::id));
+            return assemble(rows, likeCounts, liked).stream()
+                    .filter(dto -> dto.getId().equals(commentId))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        String pattern = path + "%";
+        List<CommentRow> rows = commentRepository.findSubtreeRows(postId, pattern);
+        Set<String> liked = currentUserId == null
+                ? Set.of()
+                : new HashSet<>(commentLikeRepository.findLikedCommentIdsInSubtree(postId, pattern, currentUserId));
+        // Gốc của cây con là node duy nhất không có cha nằm trong rows
+        return assemble(rows, toMap(commentLikeRepository.countBySubtree(postId, pattern)), liked).stream()
+                .filter(dto -> dto.getId().equals(commentId))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Id của comment và mọi comment con cháu, duyệt theo parent_comment_id từng cấp (mỗi cấp vài query theo chunk).
+     * Dùng cho comment chưa có path; comment đã có path thì dùng range theo path.
+     */
+    public List<String> subtreeIds(String commentId) {
+        List<String> ids = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        List<String> level = List.of(commentId);
+        while (!level.isEmpty()) {
+            ids.addAll(level);
+            seen.addAll(level);
+            List<String> next = new ArrayList<>();
+            for (List<String> chunk : chunks(level)) {
+                for (String id : commentRepository.findReplyIdsByParentIds(chunk)) {
+                    if (!seen.contains(id)) {
+                        next.add(id);
+                    }
+                }
+            }
+            level = next;
+        }
+        return ids;
+    }
+
+    static List<List<String>> chunks(List<String> ids) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK) {
+            chunks.add(ids.subList(from, Math.min(from + ID_CHUNK, ids.size())));
+        }
+        return chunks;
+    }
+
+    // Ghép cây trong một lượt duyệt; rows đã sắp theo createAt nên replies trong mỗi node giữ đúng thứ tự
+    private List<CommentResponseDTO> assemble(List<CommentRow> rows, Map<String, Long> likeCounts, Set<String> liked) {
+        Map<String, CommentResponseDTO> byId = new HashMap<>(rows.size() * 2);
+        for (CommentRow row : rows) {
+            byId.put(row.id(), commentMapper.toDto(row,
+                    likeCounts.getOrDefault(row.id(), 0L), liked.contains(row.id())));
+        }
+
+        List<CommentResponseDTO> roots = new ArrayList<>();
+        for (CommentRow row : rows) {
+            CommentResponseDTO dto = byId.get(row.id());
+            CommentResponseDTO parent = row.parentId() == null ? null : byId.get(row.parentId());
+            if (parent == null) {
+                roots.add(dto);
+            } else {
+                parent.getReplies().add(dto);
+            }
+        }
+        byId.values().forEach(dto -> dto.setReplyCount((long) dto.getReplies().size()));
+        return roots;
+    }
+
+    private static Map<String, Long> toMap(List<IdCount> counts) {
+        Map<String, Long> map = new HashMap<>();
+        for (IdCount count : counts) {
+            map.put(count.id(), count.count());
+        }
+        return map;
+    }
+
+    /**
+     * Một trang comment gốc, mỗi comment kèm tối đa {@code previewSize} reply đầu tiên và tổng số reply.
+     * Số query không phụ thuộc số comment trong trang hay độ lớn của thread.
+     */
+    public List<CommentResponseDTO> loadThreads(List<CommentRow> topLevel, int previewSize, String currentUserId) {
+        if (topLevel.isEmpty()) {
+            return List.of();
+        }
+        List<String> topIds = topLevel.stream().map(CommentRow::id).toList();
+        List<String> previewIds = previewSize > 0 ? commentRepository.findFirstReplyIds(topIds, previewSize) : List.of();
+        List<CommentRow> previews = previewIds.isEmpty() ? List.of() : commentRepository.findRowsByIdIn(previewIds);
+
+        List<CommentRow> all = new ArrayList<>(topLevel.size() + previews.size());
+        all.addAll(topLevel);
+        all.addAll(previews);
+        Map<String, CommentResponseDTO> byId = toDtos(all, currentUserId);
+
+        // previews đã sắp theo createAt, nối vào comment cha theo đúng thứ tự
+        for (CommentRow reply : previews) {
+            CommentResponseDTO parent = byId.get(reply.parentId());
+            if (parent != null) {
+                parent.getReplies().add(byId.get(reply.id()));
+            }
+        }
+        return topIds.stream().map(byId::get).toList();
+    }
+
+    // Một trang reply của một thread; mỗi reply chỉ mang replyCount, không inline reply con
+    public List<CommentResponseDTO> loadReplies(List<CommentRow> replies, String currentUserId) {
+        if (replies.isEmpty()) {
+            return List.of();
+        }
+        return new ArrayList<>(toDtos(replies, currentUserId).values());
+    }
+
+    // Đếm like, trạng thái like của viewer và số reply cho cả danh sách, mỗi loại một query
+    private Map<String, CommentResponseDTO> toDtos(List<CommentRow> rows, String currentUserId) {
+        List<String> ids = rows.stream().map(CommentRow::id).toList();
+
+        Map<String, Long> likeCounts = toMap(commentLikeRepository.countByCommentIds(ids));
+        Map<String, Long> replyCounts = toMap(commentRepository.countRepliesByParentIds(ids));
+        Set<String> liked = currentUserId == null
+                ? Set.of()
+                : new HashSet<>(commentLikeRepository.findLikedCommentIdsIn(currentUserId, ids));
+
+        Map<String, CommentResponseDTO> byId = new LinkedHashMap<>(rows.size() * 2);
+        for (CommentRow row : rows) {
+            CommentResponseDTO dto = commentMapper.toDto(row,
+                    likeCounts.getOrDefault(row.id(), 0L), liked.contains(row.id()));
+            dto.setReplyCount(replyCounts.getOrDefault(row.id(), 0L));
+            byId.put(row.id(), dto);
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.service.feed;
+
+import com.example.dto.projection.IdCount;
+import com.example.repository.follow.FollowRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quyết định tác giả nào được fan-out (push) và tác giả nào phải pull lúc đọc.
+ * Tác giả có số follower >= ngưỡng vào không được fan-out để tránh write storm, và chỉ quay lại push
+ * khi số follower xuống dưới ngưỡng ra (thấp hơn), để tác giả quanh ngưỡng không đổi chế độ liên tục.
+ * <p>
+ * Bài đăng trong lúc pull không nằm trong timeline của follower, nên tác giả vừa quay lại push vẫn được
+ * pull thêm một khoảng bằng thời gian giữ timeline; các bài đó hết hạn trước khi tác giả rời tập pull.
+ * Trạng thái này nằm trong bộ nhớ: sau khi restart, tác giả vừa hạ cấp trước đó không còn được pull.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FanoutPolicy {
+    private final FollowRepository followRepository;
+
+    @Value("${feed.fanout.follower-threshold:10000}")
+    private long followerThreshold;
+
+    @Value("${feed.fanout.exit-threshold:8000}")
+    private long exitThreshold;
+
+    @Value("${feed.fanout.count-ttl-ms:600000}")
+    private long countTtlMs;
+
+    @Value("${feed.timeline.ttl-days:30}")
+    private long timelineTtlDays;
+
+    // Số follower đã đếm của các tác giả vừa đăng bài
+    private final Map<String, CachedCount> followerCounts = new ConcurrentHashMap<>();
+    // Tập tác giả "pull": không fan-out
+    private volatile Set<String> highFollowerAuthors = ConcurrentHashMap.newKeySet();
+    // Tác giả vừa quay lại push → thời điểm rời chế độ pull; vẫn được pull ở phía đọc trong thời gian giữ timeline
+    private final Map<String, Long> downgradedAt = new ConcurrentHashMap<>();
+
+    public boolean shouldFanOut(String authorId) {
+        long count = followerCount(authorId);
+        if (highFollowerAuthors.contains(authorId)) {
+            if (count >= exitThreshold) {
+                return false;
+            }
+            downgrade(authorId, System.currentTimeMillis());
+            return true;
+        }
+        if (count < followerThreshold) {
+            return true;
+        }
+        // Đưa vào tập pull ngay, không chờ lần refresh kế tiếp
+        highFollowerAuthors.add(authorId);
+        downgradedAt.remove(authorId);
+        return false;
+    }
+
+    /** true nếu bài của tác giả được pull lúc đọc: đang ở chế độ pull hoặc vừa quay lại push. */
+    public boolean isHighFollower(String authorId) {
+        return highFollowerAuthors.contains(authorId) || downgradedAt.containsKey(authorId);
+    }
+
+    /** Các tác giả trong danh sách mà bài được pull lúc đọc, xem {@link #isHighFollower}. */
+    public List<String> highFollowerAuthors(Collection<String> authorIds) {
+        return authorIds.stream().filter(this::isHighFollower).toList();
+    }
+
+    public long followerCount(String authorId) {
+        long now = System.currentTimeMillis();
+        CachedCount cached = followerCounts.get(authorId);
+        if (cached == null || now - cached.checkedAt() > countTtlMs) {
+            cached = new CachedCount(followRepository.countByUserId(authorId), now);
+            followerCounts.put(authorId, cached);
+        }
+        return cached.count();
+    }
+
+    // Đánh giá lại định kỳ: tính lại tập tác giả lớn theo hai ngưỡng và bỏ các count đã hết hạn
+    @Scheduled(fixedDelayString = "${feed.fanout.refresh-interval-ms:300000}", initialDelay = 0)
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        Set<String> current = highFollowerAuthors;
+        Set<String> refreshed = ConcurrentHashMap.newKeySet();
+        for (IdCount count : followRepository.findFollowerCountsAtLeast(exitThreshold)) {
+            if (count.count() >= followerThreshold || current.contains(count.id())) {
+                refreshed.add(count.id());
+            }
+        }
+        highFollowerAuthors = refreshed;
+        for (String authorId : current) {
+            if (!refreshed.contains(authorId)) {
+                downgrade(authorId, now);
+            }
+        }
+        downgradedAt.keySet().removeAll(refreshed);
+
+        long retentionMs = TimeUnit.DAYS.toMillis(timelineTtlDays);
+        downgradedAt.values().removeIf(at -> now - at > retentionMs);
+        followerCounts.values().removeIf(c -> now - c.checkedAt() > countTtlMs);
+    }
+
+    private void downgrade(String authorId, long now) {
+        highFollowerAuthors.remove(authorId);
+        if (downgradedAt.putIfAbsent(authorId, now) == null) {
+            log.info("Author {} is back to fan-out, pulled for another {} days", authorId, timelineTtlDays);
+        }
+    }
+
+    private record CachedCount(long count, long checkedAt) {
+    }
+}
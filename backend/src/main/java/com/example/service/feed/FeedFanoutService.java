@@ -0,0 +1,117 @@
+package com.example.service.feed;
+
+import com.example.dto.projection.PostRef;
+import com.example.event.FollowChangedEvent;
+import com.example.event.PostCreatedEvent;
+import com.example.repository.follow.FollowRepository;
+import com.example.repository.post.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Fan-out-on-write: cập nhật timeline của follower sau khi transaction đã commit.
+ * Tác giả có nhiều follower (xem {@link FanoutPolicy}) không được fan-out mà được pull lúc đọc.
+ */
+@Slf4j
+@Service
+public class FeedFanoutService {
+    private final TimelineStore timelineStore;
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+    private final FanoutPolicy fanoutPolicy;
+
+    private final Timer fanoutTimer;
+    private final DistributionSummary fanoutRecipients;
+    private final Counter fanoutSkipped;
+
+    @Value("${feed.timeline.max-size:800}")
+    private int maxSize;
+
+    @Value("${feed.timeline.backfill-size:50}")
+    private int backfillSize;
+
+    public FeedFanoutService(TimelineStore timelineStore,
+                             FollowRepository followRepository,
+                             PostRepository postRepository,
+                             FanoutPolicy fanoutPolicy,
+                             MeterRegistry meterRegistry) {
+        this.timelineStore = timelineStore;
+        this.followRepository = followRepository;
+        this.postRepository = postRepository;
+        this.fanoutPolicy = fanoutPolicy;
+        this.fanoutTimer = Timer.builder("feed.fanout.duration")
+                .description("Thời gian fan-out một bài viết")
+                .register(meterRegistry);
+        this.fanoutRecipients = DistributionSummary.builder("feed.fanout.recipients")
+                .description("Số timeline được ghi cho mỗi bài viết")
+                .register(meterRegistry);
+        this.fanoutSkipped = Counter.builder("feed.fanout.skipped")
+                .description("Số bài viết của tác giả nhiều follower, không fan-out")
+                .register(meterRegistry);
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostCreated(PostCreatedEvent event) {
+        if (!fanoutPolicy.shouldFanOut(event.authorId())) {
+            fanoutSkipped.increment();
+            return;
+        }
+        fanoutTimer.record(() -> {
+            List<String> followerIds = followRepository.findFollowerIdsByUserId(event.authorId());
+            fanoutRecipients.record(followerIds.size());
+            if (followerIds.isEmpty()) {
+                return;
+            }
+            timelineStore.push(followerIds, TimelineEntry.of(event.postId(), event.createAt()));
+            log.debug("Fan-out post {} to {} followers", event.postId(), followerIds.size());
+        });
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFollowChanged(FollowChangedEvent event) {
+        if (event.followed()) {
+            // Bài của tác giả lớn được pull lúc đọc, không cần backfill
+            if (fanoutPolicy.isHighFollower(event.userId())) {
+                return;
+            }
+            // Follow: backfill các bài gần nhất của người được follow
+            List<PostRef> refs = postRepository.findPostRefsByAuthor(event.userId(), PageRequest.of(0, backfillSize));
+            timelineStore.pushAll(event.followerId(), toEntries(refs));
+        } else {
+            // Unfollow: xóa các bài của người đó khỏi timeline
+            List<PostRef> refs = postRepository.findPostRefsByAuthor(event.userId(), PageRequest.of(0, maxSize));
+            timelineStore.remove(event.followerId(), refs.stream().map(PostRef::id).toList());
+        }
+    }
+
+    /** Dựng lại timeline từ follow graph (user cũ chưa có timeline hoặc timeline đã hết hạn). */
+    public void rebuild(String userId) {
+        List<String> followingIds = followRepository.findFollowingIdsByFollowerId(userId).stream()
+                .filter(id -> !fanoutPolicy.isHighFollower(id))
+                .toList();
+        // User chưa follow ai vẫn được đánh dấu để không dựng lại ở mỗi lần đọc
+        List<PostRef> refs = followingIds.isEmpty()
+                ? List.of()
+                : postRepository.findPostRefsByAuthors(followingIds, PageRequest.of(0, maxSize));
+        timelineStore.materialize(userId, toEntries(refs));
+    }
+
+    private List<TimelineEntry> toEntries(List<PostRef> refs) {
+        return refs.stream()
+                .map(ref -> TimelineEntry.of(ref.id(), ref.createAt()))
+                .toList();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.service.feed;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * K-way merge các nguồn feed đã sắp theo {@link TimelineEntry#NEWEST_FIRST}.
+ */
+public final class FeedMerger {
+
+    private FeedMerger() {
+    }
+
+    public static List<TimelineEntry> merge(List<List<TimelineEntry>> sources, int limit) {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>((a, b) -> TimelineEntry.NEWEST_FIRST.compare(a.head(), b.head()));
+        for (List<TimelineEntry> source : sources) {
+            if (!source.isEmpty()) {
+                heap.add(new Cursor(source, 0));
+            }
+        }
+
+        List<TimelineEntry> rs = new ArrayList<>(limit);
+        // Một bài có thể vừa được push vừa được pull (tác giả vừa vượt ngưỡng)
+        Set<String> seen = new HashSet<>();
+        while (!heap.isEmpty() && rs.size() < limit) {
+            Cursor top = heap.poll();
+            TimelineEntry entry = top.head();
+            if (seen.add(entry.postId())) {
+                rs.add(entry);
+            }
+            if (top.index() + 1 < top.source().size()) {
+                heap.add(new Cursor(top.source(), top.index() + 1));
+            }
+        }
+        return rs;
+    }
+
+    private record Cursor(List<TimelineEntry> source, int index) {
+        TimelineEntry head() {
+            return source.get(index);
+        }
+    }
+}
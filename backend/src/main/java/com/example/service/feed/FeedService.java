@@ -0,0 +1,153 @@
+package com.example.service.feed;
+
+import com.example.dto.projection.PostRef;
+import com.example.dto.response.CursorPageResponse;
+import com.example.dto.response.post.NewPostsResponse;
+import com.example.dto.response.post.PostResponse;
+import com.example.mapper.PostMapper;
+import com.example.repository.follow.FollowRepository;
+import com.example.repository.post.PostRepository;
+import com.example.service.post.PostCard;
+import com.example.service.post.PostCardCache;
+import com.example.service.post.PostService;
+import com.example.utils.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Home feed đọc từ timeline đã materialize: một lần đọc range, nội dung bài lấy từ {@link PostCardCache}.
+ * Bài của tác giả nhiều follower được pull lúc đọc rồi merge với timeline (hybrid push/pull).
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedService {
+    private final TimelineStore timelineStore;
+    private final FeedFanoutService fanoutService;
+    private final FanoutPolicy fanoutPolicy;
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+    private final PostMapper postMapper;
+    private final PostCardCache postCardCache;
+
+    public CursorPageResponse<PostResponse> getTimeline(String viewerId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int limit = Math.min(Math.max(size, 1), PostService.MAX_FEED_PAGE_SIZE);
+
+        if (after == null && !timelineStore.exists(viewerId)) {
+            fanoutService.rebuild(viewerId);
+        }
+
+        TimelineEntry before = after == null ? null : TimelineEntry.of(after.id(), after.timestamp());
+        List<TimelineEntry> pushed = timelineStore.read(viewerId, before, limit + 1);
+        List<TimelineEntry> pulled = pullHighFollowerPosts(viewerId, after, limit + 1);
+        List<TimelineEntry> entries = pulled.isEmpty()
+                ? pushed
+                : FeedMerger.merge(List.of(pushed, pulled), limit + 1);
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+
+        List<String> ids = entries.stream().map(TimelineEntry::postId).toList();
+        List<PostCard> cards = postCardCache.getCards(ids);
+        List<PostResponse> items = postMapper.fromCards(cards, viewerId);
+
+        if (cards.size() < ids.size()) {
+            // bài đã bị xóa
+            Set<String> found = cards.stream().map(PostCard::id).collect(Collectors.toSet());
+            List<String> missing = ids.stream().filter(id -> !found.contains(id)).toList();
+            timelineStore.remove(viewerId, missing);
+        }
+
+        String nextCursor = hasMore ? toCursor(entries.get(entries.size() - 1)) : null;
+        String newestCursor = after == null && !entries.isEmpty() ? toCursor(entries.get(0)) : null;
+        return CursorPageResponse.<PostResponse>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .newestCursor(newestCursor)
+                .build();
+    }
+
+    /**
+     * Bài mới hơn cursor client đang giữ, đọc từ timeline (ZRANGEBYSCORE từ score của cursor)
+     * cộng phần pull của tác giả nhiều follower: chi phí theo số bài mới, không theo độ dài feed.
+     */
+    public NewPostsResponse getNewSince(String viewerId, String cursor) {
+        KeysetCursor since = KeysetCursor.decode(cursor);
+        if (since == null) {
+            throw new IllegalArgumentException("Thiếu cursor");
+        }
+        if (!timelineStore.exists(viewerId)) {
+            fanoutService.rebuild(viewerId);
+        }
+        int limit = PostService.MAX_NEW_POSTS;
+        TimelineEntry after = TimelineEntry.of(since.id(), since.timestamp());
+
+        // Gộp hai nguồn (đều tăng dần theo thời gian), bỏ trùng, giữ các bài gần cursor nhất
+        Map<String, TimelineEntry> newer = new HashMap<>();
+        timelineStore.readNewer(viewerId, after, limit + 1).forEach(e -> newer.put(e.postId(), e));
+        pullNewerHighFollowerPosts(viewerId, since, limit + 1).forEach(e -> newer.putIfAbsent(e.postId(), e));
+        List<TimelineEntry> entries = newer.values().stream()
+                .sorted(TimelineEntry.NEWEST_FIRST.reversed())
+                .limit(limit + 1L)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+        List<String> ids = new ArrayList<>(entries.size());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            ids.add(entries.get(i).postId());
+        }
+        return NewPostsResponse.builder()
+                .count(ids.size())
+                .ids(ids)
+                .hasMore(hasMore)
+                .newestCursor(entries.isEmpty() ? null : toCursor(entries.get(entries.size() - 1)))
+                .build();
+    }
+
+    private String toCursor(TimelineEntry entry) {
+        return new KeysetCursor(entry.timestamp(), entry.postId()).encode();
+    }
+
+    private List<String> highFollowerFollowings(String viewerId) {
+        return fanoutPolicy.highFollowerAuthors(followRepository.findFollowingIdsByFollowerId(viewerId));
+    }
+
+    private List<TimelineEntry> pullNewerHighFollowerPosts(String viewerId, KeysetCursor since, int limit) {
+        List<String> authors = highFollowerFollowings(viewerId);
+        if (authors.isEmpty()) {
+            return List.of();
+        }
+        return postRepository.findPostRefsByAuthorsNewer(authors, since.timestamp(), since.id(), PageRequest.of(0, limit))
+                .stream()
+                .map(ref -> TimelineEntry.of(ref.id(), ref.createAt()))
+                .toList();
+    }
+
+    private List<TimelineEntry> pullHighFollowerPosts(String viewerId, KeysetCursor after, int limit) {
+        List<String> authors = highFollowerFollowings(viewerId);
+        if (authors.isEmpty()) {
+            return List.of();
+        }
+        Pageable page = PageRequest.of(0, limit);
+        List<PostRef> refs = after == null
+                ? postRepository.findPostRefsByAuthors(authors, page)
+                : postRepository.findPostRefsByAuthorsBefore(authors, after.timestamp(), after.id(), page);
+        return refs.stream()
+                .map(ref -> TimelineEntry.of(ref.id(), ref.createAt()))
+                .toList();
+    }
+}
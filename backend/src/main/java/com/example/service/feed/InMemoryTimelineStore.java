@@ -0,0 +1,111 @@
+package com.example.service.feed;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Timeline lưu trong bộ nhớ, dùng cho test và môi trường dev không có Redis.
+ */
+@Component
+@ConditionalOnProperty(name = "feed.timeline.store", havingValue = "memory")
+public class InMemoryTimelineStore implements TimelineStore {
+    private final Map<String, TreeSet<TimelineEntry>> timelines = new ConcurrentHashMap<>();
+    private final Set<String> materialized = ConcurrentHashMap.newKeySet();
+    private final int maxSize;
+
+    public InMemoryTimelineStore(@Value("${feed.timeline.max-size:800}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public void push(Collection<String> userIds, TimelineEntry entry) {
+        for (String userId : userIds) {
+            pushAll(userId, List.of(entry));
+        }
+    }
+
+    @Override
+    public void pushAll(String userId, Collection<TimelineEntry> entries) {
+        TreeSet<TimelineEntry> timeline = timelines.computeIfAbsent(userId,
+                id -> new TreeSet<>(TimelineEntry.NEWEST_FIRST));
+        synchronized (timeline) {
+            // Bỏ entry cũ cùng postId để không bị trùng khi score thay đổi
+            Set<String> postIds = entries.stream().map(TimelineEntry::postId).collect(Collectors.toSet());
+            timeline.removeIf(e -> postIds.contains(e.postId()));
+            timeline.addAll(entries);
+            while (timeline.size() > maxSize) {
+                timeline.pollLast();
+            }
+        }
+    }
+
+    @Override
+    public void materialize(String userId, Collection<TimelineEntry> entries) {
+        pushAll(userId, entries);
+        materialized.add(userId);
+    }
+
+    @Override
+    public void remove(String userId, Collection<String> postIds) {
+        TreeSet<TimelineEntry> timeline = timelines.get(userId);
+        if (timeline == null) {
+            return;
+        }
+        synchronized (timeline) {
+            timeline.removeIf(e -> postIds.contains(e.postId()));
+        }
+    }
+
+    @Override
+    public List<TimelineEntry> read(String userId, TimelineEntry before, int limit) {
+        TreeSet<TimelineEntry> timeline = timelines.get(userId);
+        if (timeline == null) {
+            return List.of();
+        }
+        synchronized (timeline) {
+            NavigableSet<TimelineEntry> view = before == null ? timeline : timeline.tailSet(before, false);
+            List<TimelineEntry> rs = new ArrayList<>(Math.min(limit, view.size()));
+            for (TimelineEntry e : view) {
+                if (rs.size() >= limit) {
+                    break;
+                }
+                rs.add(e);
+            }
+            return rs;
+        }
+    }
+
+    @Override
+    public List<TimelineEntry> readNewer(String userId, TimelineEntry after, int limit) {
+        TreeSet<TimelineEntry> timeline = timelines.get(userId);
+        if (timeline == null) {
+            return List.of();
+        }
+        synchronized (timeline) {
+            // headSet theo NEWEST_FIRST là các entry mới hơn; duyệt ngược để lấy entry gần after nhất trước
+            Iterator<TimelineEntry> it = timeline.headSet(after, false).descendingIterator();
+            List<TimelineEntry> rs = new ArrayList<>();
+            while (it.hasNext() && rs.size() < limit) {
+                rs.add(it.next());
+            }
+            return rs;
+        }
+    }
+
+    @Override
+    public boolean exists(String userId) {
+        return materialized.contains(userId);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.service.feed;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Timeline lưu trong Redis dưới dạng ZSET: member = postId, score = createAt (micro giây).
+ * Khi trùng score, Redis sắp theo member nên ZREVRANGE cho đúng thứ tự (createAt DESC, id DESC).
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "feed.timeline.store", havingValue = "redis", matchIfMissing = true)
+public class RedisTimelineStore implements TimelineStore {
+    private static final String KEY_PREFIX = "timeline:";
+    // Đánh dấu timeline đã được dựng đầy đủ; chỉ có key timeline (do fan-out tạo ra) thì chưa đủ
+    private static final String READY_PREFIX = "timeline:ready:";
+    // Số entry đọc dư để lọc các bài trùng score với cursor
+    private static final int TIE_SLACK = 16;
+    private static final int PIPELINE_CHUNK = 1000;
+
+    private final StringRedisTemplate redis;
+
+    @Value("${feed.timeline.max-size:800}")
+    private int maxSize;
+
+    @Value("${feed.timeline.ttl-days:30}")
+    private int ttlDays;
+
+    @Override
+    public void push(Collection<String> userIds, TimelineEntry entry) {
+        List<String> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += PIPELINE_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(from + PIPELINE_CHUNK, ids.size()));
+            redis.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String userId : chunk) {
+                    add(conn, key(userId), List.of(entry));
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void pushAll(String userId, Collection<TimelineEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            add((StringRedisConnection) connection, key(userId), entries);
+            return null;
+        });
+    }
+
+    private void add(StringRedisConnection conn, String key, Collection<TimelineEntry> entries) {
+        for (TimelineEntry e : entries) {
+            conn.zAdd(key, e.score(), e.postId());
+        }
+        // Giữ lại maxSize phần tử mới nhất
+        conn.zRemRange(key, 0, -(maxSize + 1L));
+        conn.expire(key, Duration.ofDays(ttlDays).toSeconds());
+    }
+
+    @Override
+    public void materialize(String userId, Collection<TimelineEntry> entries) {
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            if (!entries.isEmpty()) {
+                add(conn, key(userId), entries);
+            }
+            // Marker hết hạn cùng lúc với lần ghi này; push sau đó chỉ kéo dài TTL của timeline
+            // nên marker không bao giờ sống lâu hơn dữ liệu
+            conn.setEx(READY_PREFIX + userId, Duration.ofDays(ttlDays).toSeconds(), "1");
+            return null;
+        });
+    }
+
+    @Override
+    public void remove(String userId, Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        redis.opsForZSet().remove(key(userId), postIds.toArray());
+    }
+
+    @Override
+    public List<TimelineEntry> read(String userId, TimelineEntry before, int limit) {
+        double max = before == null ? Double.POSITIVE_INFINITY : before.score();
+        int fetch = before == null ? limit : limit + TIE_SLACK;
+        Set<ZSetOperations.TypedTuple<String>> tuples = redis.opsForZSet()
+                .reverseRangeByScoreWithScores(key(userId), Double.NEGATIVE_INFINITY, max, 0, fetch);
+
+        List<TimelineEntry> rs = new ArrayList<>(limit);
+        if (tuples == null) {
+            return rs;
+        }
+        for (ZSetOperations.TypedTuple<String> t : tuples) {
+            if (rs.size() >= limit) {
+                break;
+            }
+            TimelineEntry e = new TimelineEntry(t.getValue(), t.getScore().longValue());
+            if (before == null || e.isOlderThan(before)) {
+                rs.add(e);
+            }
+        }
+        return rs;
+    }
+
+    @Override
+    public List<TimelineEntry> readNewer(String userId, TimelineEntry after, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = redis.opsForZSet()
+                .rangeByScoreWithScores(key(userId), after.score(), Double.POSITIVE_INFINITY, 0, limit + TIE_SLACK);
+
+        List<TimelineEntry> rs = new ArrayList<>(limit);
+        if (tuples == null) {
+            return rs;
+        }
+        for (ZSetOperations.TypedTuple<String> t : tuples) {
+            if (rs.size() >= limit) {
+                break;
+            }
+            TimelineEntry e = new TimelineEntry(t.getValue(), t.getScore().longValue());
+            if (after.isOlderThan(e)) {
+                rs.add(e);
+            }
+        }
+        return rs;
+    }
+
+    @Override
+    public boolean exists(String userId) {
+        return Boolean.TRUE.equals(redis.hasKey(READY_PREFIX + userId));
+    }
+
+    private String key(String userId) {
+        return KEY_PREFIX + userId;
+    }
+}
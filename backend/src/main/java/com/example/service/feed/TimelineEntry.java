@@ -0,0 +1,36 @@
+package com.example.service.feed;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+
+/**
+ * Một phần tử trong timeline: score là createAt tính theo micro giây (epoch),
+ * đủ chính xác để double của Redis ZSET biểu diễn không mất mát.
+ */
+public record TimelineEntry(String postId, long score) {
+    private static final LocalDateTime EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    // Cùng thứ tự với feed: createAt DESC, id DESC
+    public static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparingLong(TimelineEntry::score).reversed()
+            .thenComparing(TimelineEntry::postId, Comparator.reverseOrder());
+
+    public static TimelineEntry of(String postId, LocalDateTime createAt) {
+        return new TimelineEntry(postId, toScore(createAt));
+    }
+
+    public static long toScore(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(EPOCH, time);
+    }
+
+    public LocalDateTime timestamp() {
+        return EPOCH.plus(score, ChronoUnit.MICROS);
+    }
+
+    /** true nếu entry này đứng sau (cũ hơn) {@code other} trong timeline. */
+    public boolean isOlderThan(TimelineEntry other) {
+        return NEWEST_FIRST.compare(this, other) > 0;
+    }
+}
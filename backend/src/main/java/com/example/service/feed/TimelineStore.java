@@ -0,0 +1,42 @@
+package com.example.service.feed;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Timeline đã được materialize cho từng user (fan-out-on-write).
+ * Mỗi timeline có giới hạn số phần tử, phần tử cũ nhất bị cắt bỏ khi vượt quá.
+ */
+public interface TimelineStore {
+
+    /**
+     * Đẩy một bài viết vào timeline của nhiều user (fan-out).
+     * Không đánh dấu timeline là đã materialize: user chưa có timeline vẫn được {@link #materialize} dựng lại.
+     */
+    void push(Collection<String> userIds, TimelineEntry entry);
+
+    /** Đẩy nhiều bài viết vào timeline của một user (backfill khi follow). */
+    void pushAll(String userId, Collection<TimelineEntry> entries);
+
+    /**
+     * Ghi timeline dựng từ follow graph (gộp với các entry đã được push trước đó) và đánh dấu đã materialize.
+     */
+    void materialize(String userId, Collection<TimelineEntry> entries);
+
+    void remove(String userId, Collection<String> postIds);
+
+    /**
+     * Đọc tối đa {@code limit} entry mới nhất, cũ hơn {@code before}.
+     * {@code before} = null để đọc từ đầu timeline.
+     */
+    List<TimelineEntry> read(String userId, TimelineEntry before, int limit);
+
+    /**
+     * Đọc tối đa {@code limit} entry mới hơn {@code after}, entry gần {@code after} nhất trước
+     * (thứ tự tăng dần theo thời gian).
+     */
+    List<TimelineEntry> readNewer(String userId, TimelineEntry after, int limit);
+
+    /** true nếu timeline đã được {@link #materialize}; chỉ có entry từ fan-out thì chưa tính. */
+    boolean exists(String userId);
+}
@@ -0,0 +1,104 @@
+package com.example.service.feed.ranking;
+
+import com.example.dto.projection.IdCount;
+import com.example.event.EngagementEvent;
+import com.example.repository.comment.CommentRepository;
+import com.example.repository.like.LikeRepository;
+import com.example.repository.story.StoryViewRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Affinity viewer → tác giả, tính từ like, comment và lượt xem story.
+ * Điểm của một viewer được nạp từ DB (3 query group by) ở lần đầu cần tới,
+ * sau đó chỉ cộng dồn theo {@link EngagementEvent} nên lúc ranking không phải query.
+ */
+@Service
+@RequiredArgsConstructor
+public class AffinityService {
+    private static final double LIKE_WEIGHT = 1.0;
+    private static final double COMMENT_WEIGHT = 3.0;
+    private static final double STORY_VIEW_WEIGHT = 0.5;
+    // Điểm thô bằng SATURATION ứng với affinity 0.5
+    private static final double SATURATION = 5.0;
+
+    private final LikeRepository likeRepository;
+    private final CommentRepository commentRepository;
+    private final StoryViewRepository storyViewRepository;
+
+    @Value("${feed.ranking.affinity-cache-size:10000}")
+    private int maxViewers;
+
+    // LRU theo viewer để giới hạn bộ nhớ; viewer bị loại sẽ được nạp lại từ DB
+    private final Map<String, Map<String, Double>> viewers = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Double>> eldest) {
+                    return size() > maxViewers;
+                }
+            });
+
+    // Điểm thô theo tác giả của viewer
+    public Map<String, Double> scoresFor(String viewerId) {
+        Map<String, Double> scores = viewers.get(viewerId);
+        if (scores == null) {
+            scores = load(viewerId);
+            Map<String, Double> existing = viewers.putIfAbsent(viewerId, scores);
+            if (existing != null) {
+                scores = existing;
+            }
+        }
+        return Collections.unmodifiableMap(scores);
+    }
+
+    // Đưa điểm thô về [0, 1)
+    public static double normalize(double raw) {
+        return raw <= 0 ? 0 : raw / (raw + SATURATION);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEngagement(EngagementEvent event) {
+        if (event.actorId() == null || event.authorId() == null || event.actorId().equals(event.authorId())) {
+            return;
+        }
+        Map<String, Double> scores = viewers.get(event.actorId());
+        if (scores == null) {
+            // Chưa nạp: lần ranking tới sẽ đọc từ DB, đã bao gồm tương tác này
+            return;
+        }
+        scores.merge(event.authorId(), weight(event.type()), (a, b) -> Math.max(0, a + b));
+    }
+
+    private Map<String, Double> load(String viewerId) {
+        Map<String, Double> scores = new ConcurrentHashMap<>();
+        add(scores, likeRepository.countByAuthorForUser(viewerId), LIKE_WEIGHT);
+        add(scores, commentRepository.countByAuthorForSender(viewerId), COMMENT_WEIGHT);
+        add(scores, storyViewRepository.countByAuthorForViewer(viewerId), STORY_VIEW_WEIGHT);
+        scores.remove(viewerId);
+        return scores;
+    }
+
+    private void add(Map<String, Double> scores, List<IdCount> counts, double weight) {
+        for (IdCount count : counts) {
+            scores.merge(count.id(), count.count() * weight, Double::sum);
+        }
+    }
+
+    private double weight(EngagementEvent.Type type) {
+        return switch (type) {
+            case LIKE -> LIKE_WEIGHT;
+            case UNLIKE -> -LIKE_WEIGHT;
+            case COMMENT -> COMMENT_WEIGHT;
+            case STORY_VIEW -> STORY_VIEW_WEIGHT;
+        };
+    }
+}
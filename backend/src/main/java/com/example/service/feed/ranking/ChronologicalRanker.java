@@ -0,0 +1,27 @@
+package com.example.service.feed.ranking;
+
+import com.example.dto.projection.RankCandidate;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+// Thứ tự cũ: mới nhất trước (nhóm đối chứng khi A/B test)
+@Component
+public class ChronologicalRanker implements FeedRanker {
+    public static final String NAME = "chronological";
+
+    private static final Comparator<RankCandidate> NEWEST_FIRST = Comparator
+            .comparing(RankCandidate::createAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(RankCandidate::postId, Comparator.reverseOrder());
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<RankCandidate> rank(String viewerId, List<RankCandidate> candidates) {
+        return candidates.stream().sorted(NEWEST_FIRST).toList();
+    }
+}
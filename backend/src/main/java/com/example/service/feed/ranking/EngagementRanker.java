@@ -0,0 +1,81 @@
+package com.example.service.feed.ranking;
+
+import com.example.dto.projection.RankCandidate;
+import com.example.service.post.PostCounterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * score = recency + engagement velocity + affinity (viewer → tác giả), mỗi thành phần có trọng số.
+ * Mọi dữ liệu cần chấm điểm đã có sẵn trong bộ nhớ nên tập vài trăm ứng viên chỉ tốn O(n log n).
+ */
+@Component
+@RequiredArgsConstructor
+public class EngagementRanker implements FeedRanker {
+    public static final String NAME = "engagement";
+
+    // Một comment "nặng" hơn một like
+    private static final double COMMENT_WEIGHT = 2.0;
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private final AffinityService affinityService;
+    private final PostCounterService postCounterService;
+
+    @Value("${feed.ranking.recency-weight:1.0}")
+    private double recencyWeight;
+
+    @Value("${feed.ranking.engagement-weight:0.6}")
+    private double engagementWeight;
+
+    @Value("${feed.ranking.affinity-weight:0.8}")
+    private double affinityWeight;
+
+    @Value("${feed.ranking.half-life-hours:12}")
+    private double halfLifeHours;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<RankCandidate> rank(String viewerId, List<RankCandidate> candidates) {
+        Map<String, Double> affinity = affinityService.scoresFor(viewerId);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Scored> scored = new ArrayList<>(candidates.size());
+        for (RankCandidate candidate : candidates) {
+            double raw = affinity.getOrDefault(candidate.authorId(), 0.0);
+            scored.add(new Scored(candidate, score(candidate, AffinityService.normalize(raw), now)));
+        }
+        scored.sort(Comparator.comparingDouble(Scored::score).reversed());
+        return scored.stream().map(Scored::candidate).toList();
+    }
+
+    double score(RankCandidate candidate, double affinity, LocalDateTime now) {
+        double ageHours = candidate.createAt() == null
+                ? Double.MAX_VALUE
+                : Math.max(0, Duration.between(candidate.createAt(), now).toMillis() / MILLIS_PER_HOUR);
+        double recency = Math.pow(0.5, ageHours / halfLifeHours);
+
+        // Cộng cả phần đếm chưa flush để bài đang "nóng" được phản ánh ngay
+        long likes = candidate.likeCount() + postCounterService.pendingLikes(candidate.postId());
+        long comments = candidate.commentCount() + postCounterService.pendingComments(candidate.postId());
+        double interactions = Math.max(0, likes + COMMENT_WEIGHT * comments);
+        // Tương tác trên mỗi giờ tuổi, log để vài bài viral không lấn át toàn bộ feed
+        double velocity = Math.log1p(interactions / (ageHours + 2));
+
+        return recencyWeight * recency + engagementWeight * velocity + affinityWeight * affinity;
+    }
+
+    private record Scored(RankCandidate candidate, double score) {
+    }
+}
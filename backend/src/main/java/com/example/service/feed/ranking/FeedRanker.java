@@ -0,0 +1,16 @@
+package com.example.service.feed.ranking;
+
+import com.example.dto.projection.RankCandidate;
+
+import java.util.List;
+
+/**
+ * Một chiến lược sắp xếp feed. Các implementation là bean Spring,
+ * được chọn theo tên bởi {@link FeedRankingService} (phục vụ A/B test).
+ */
+public interface FeedRanker {
+    String name();
+
+    // Trả về các ứng viên theo thứ tự hiển thị
+    List<RankCandidate> rank(String viewerId, List<RankCandidate> candidates);
+}
@@ -0,0 +1,159 @@
+package com.example.service.feed.ranking;
+
+import com.example.dto.projection.RankCandidate;
+import com.example.dto.response.CursorPageResponse;
+import com.example.dto.response.post.PostResponse;
+import com.example.mapper.PostMapper;
+import com.example.repository.post.PostRepository;
+import com.example.service.post.PostCard;
+import com.example.service.post.PostCardCache;
+import com.example.service.post.PostService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Feed có ranking: lấy tập ứng viên mới nhất (projection), chấm điểm bằng {@link FeedRanker}
+ * rồi chỉ lấy card của các bài thuộc trang được yêu cầu.
+ * Viewer được chia bucket theo hash id để một phần traffic dùng chiến lược thử nghiệm.
+ * <p>
+ * Thứ tự đã rank ở trang đầu được giữ lại (snapshot theo phiên đọc) và các trang sau cắt từ snapshot đó,
+ * nên bài mới hay điểm thay đổi giữa hai lần cuộn không làm trang sau bị trùng hoặc sót bài.
+ * Snapshot nằm trong bộ nhớ của instance; cursor của snapshot đã hết hạn bị từ chối, client tải lại từ đầu.
+ */
+@Service
+public class FeedRankingService {
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final Map<String, FeedRanker> rankers;
+    private final PostRepository postRepository;
+    private final PostMapper postMapper;
+    private final PostCardCache postCardCache;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, RankedSnapshot> snapshots;
+
+    @Value("${feed.ranking.strategy:" + EngagementRanker.NAME + "}")
+    private String defaultStrategy;
+
+    @Value("${feed.ranking.experiment-strategy:}")
+    private String experimentStrategy;
+
+    // Phần trăm viewer (0-100) dùng experiment-strategy
+    @Value("${feed.ranking.experiment-percent:0}")
+    private int experimentPercent;
+
+    @Value("${feed.ranking.candidate-pool:500}")
+    private int candidatePool;
+
+    public FeedRankingService(List<FeedRanker> rankers,
+                              PostRepository postRepository,
+                              PostMapper postMapper,
+                              PostCardCache postCardCache,
+                              MeterRegistry meterRegistry,
+                              @Value("${feed.ranking.snapshot-max-size:10000}") long snapshotMaxSize,
+                              @Value("${feed.ranking.snapshot-expire-minutes:30}") long snapshotExpireMinutes) {
+        this.rankers = rankers.stream().collect(Collectors.toMap(FeedRanker::name, Function.identity()));
+        this.postRepository = postRepository;
+        this.postMapper = postMapper;
+        this.postCardCache = postCardCache;
+        this.meterRegistry = meterRegistry;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(snapshotMaxSize)
+                .expireAfterAccess(Duration.ofMinutes(snapshotExpireMinutes))
+                .build();
+    }
+
+    public FeedRanker rankerFor(String viewerId) {
+        String strategy = defaultStrategy;
+        if (!experimentStrategy.isBlank() && Math.floorMod(viewerId.hashCode(), 100) < experimentPercent) {
+            strategy = experimentStrategy;
+        }
+        FeedRanker ranker = rankers.get(strategy);
+        return ranker != null ? ranker : rankers.get(ChronologicalRanker.NAME);
+    }
+
+    // cursor = (id snapshot, vị trí trong snapshot)
+    public CursorPageResponse<PostResponse> getRankedFeed(String viewerId, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), PostService.MAX_FEED_PAGE_SIZE);
+
+        String snapshotId;
+        int offset;
+        RankedSnapshot snapshot;
+        if (cursor == null || cursor.isBlank()) {
+            snapshotId = UUID.randomUUID().toString();
+            offset = 0;
+            snapshot = new RankedSnapshot(viewerId, rank(viewerId));
+            snapshots.put(snapshotId, snapshot);
+        } else {
+            String[] parts = decodeCursor(cursor);
+            snapshotId = parts[0];
+            offset = parseOffset(parts[1]);
+            snapshot = snapshots.getIfPresent(snapshotId);
+            if (snapshot == null || !snapshot.viewerId().equals(viewerId)) {
+                throw new IllegalArgumentException("Cursor đã hết hạn");
+            }
+        }
+
+        List<String> ranked = snapshot.postIds();
+        int from = Math.min(offset, ranked.size());
+        int to = Math.min(from + limit, ranked.size());
+        List<PostCard> cards = postCardCache.getCards(ranked.subList(from, to));
+
+        boolean hasMore = to < ranked.size();
+        return CursorPageResponse.<PostResponse>builder()
+                .items(postMapper.fromCards(cards, viewerId))
+                .nextCursor(hasMore ? encodeCursor(snapshotId, to) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private List<String> rank(String viewerId) {
+        List<RankCandidate> candidates = postRepository.findRankCandidates(viewerId, PageRequest.of(0, candidatePool));
+        FeedRanker ranker = rankerFor(viewerId);
+        List<RankCandidate> ranked = Timer.builder("feed.ranking.duration")
+                .description("Thời gian chấm điểm tập ứng viên")
+                .tag("strategy", ranker.name())
+                .register(meterRegistry)
+                .record(() -> ranker.rank(viewerId, candidates));
+        return ranked.stream().map(RankCandidate::postId).toList();
+    }
+
+    private static String encodeCursor(String snapshotId, int offset) {
+        String raw = snapshotId + CURSOR_SEPARATOR + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int idx = raw.lastIndexOf(CURSOR_SEPARATOR);
+        if (idx <= 0 || idx == raw.length() - 1) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+        return new String[]{raw.substring(0, idx), raw.substring(idx + 1)};
+    }
+
+    private static int parseOffset(String value) {
+        int offset = Integer.parseInt(value);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Cursor không hợp lệ");
+        }
+        return offset;
+    }
+
+    // Thứ tự bài đã rank ở trang đầu của một phiên đọc
+    private record RankedSnapshot(String viewerId, List<String> postIds) {
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.service.like;
+
+import com.example.repository.like.LikeRepository;
+import com.example.service.post.PostCounterService;
+import com.example.utils.BatchUpdates;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Buffer like/unlike theo cặp (user, post): chỉ giữ trạng thái cuối cùng nên like → unlike → like
+ * chỉ còn một lần ghi, và cặp quay về đúng trạng thái trong DB thì không ghi gì.
+ * like_count được cộng ngay khi trạng thái hiệu lực đổi; flush định kỳ ghi phần chênh lệch
+ * bằng batch INSERT IGNORE / DELETE dựa trên unique key (user_id, post_id).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LikeBuffer {
+    private static final String INSERT_SQL = "INSERT IGNORE INTO post_like (id, user_id, post_id, create_at) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM post_like WHERE user_id = ? AND post_id = ?";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LikeRepository likeRepository;
+    private final PostCounterService postCounterService;
+
+    // Thao tác ghi giữ read lock; flush giữ write lock trong lúc đổi buffer
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Map<Key, Toggle> pending = new ConcurrentHashMap<>();
+    // Buffer đang được ghi xuống DB, vẫn dùng cho đọc để không bị "nhảy" trạng thái
+    private volatile Map<Key, Toggle> flushing = new ConcurrentHashMap<>();
+    // Tăng mỗi khi một lần flush kết thúc, để set() biết giá trị vừa đọc từ DB đã cũ hay chưa
+    private final AtomicLong flushGeneration = new AtomicLong();
+
+    /**
+     * Đặt trạng thái like mong muốn của user với bài viết.
+     * Trạng thái trước và sau được xác định trong cùng một {@code pending.compute} nên hai lần bấm đồng thời
+     * chỉ có một lần được tính là thay đổi; like_count cũng chỉ được cộng cho lần đó.
+     * @return true nếu trạng thái hiệu lực thay đổi (không phải like lặp lại / unlike khi chưa like)
+     */
+    public boolean set(String userId, String postId, boolean liked) {
+        Key key = new Key(userId, postId);
+        while (true) {
+            long generation = flushGeneration.get();
+            // Query DB trước khi lấy lock để câu query chậm không chặn flush(); bỏ qua nếu buffer đã có cặp này
+            Boolean stored = isBuffered(key) ? null : likeRepository.existsByUserIdAndPostId(userId, postId);
+
+            Transition transition;
+            swapLock.readLock().lock();
+            try {
+                Toggle inFlight = flushing.get(key);
+                // Trạng thái DB sau khi các lần flush trước hoàn tất. Giá trị đọc từ DB chỉ còn đúng
+                // nếu chưa có lần flush nào kết thúc kể từ lúc đọc.
+                Boolean persisted = inFlight != null ? Boolean.valueOf(inFlight.liked())
+                        : flushGeneration.get() == generation ? stored
+                        : null;
+                transition = apply(key, persisted, liked);
+                if (transition == Transition.CHANGED) {
+                    // Cộng trong lúc giữ lock để đối soát (withWritesPaused) thấy thao tác và delta cùng lúc
+                    postCounterService.incrementLikes(postId, liked ? 1 : -1);
+                }
+            } finally {
+                swapLock.readLock().unlock();
+            }
+            if (transition != Transition.RETRY) {
+                return transition == Transition.CHANGED;
+            }
+        }
+    }
+
+    private Transition apply(Key key, Boolean persisted, boolean liked) {
+        Transition[] rs = new Transition[1];
+        pending.compute(key, (k, cur) -> {
+            if (cur == null && persisted == null) {
+                // Không còn biết trạng thái DB (cặp vừa được flush): đọc lại
+                rs[0] = Transition.RETRY;
+                return null;
+            }
+            boolean base = cur != null ? cur.persisted() : persisted;
+            boolean before = cur != null ? cur.liked() : base;
+            rs[0] = before == liked ? Transition.UNCHANGED : Transition.CHANGED;
+            // Quay về đúng trạng thái trong DB: không cần ghi gì
+            return base == liked ? null : new Toggle(base, liked);
+        });
+        return rs[0];
+    }
+
+    private boolean isBuffered(Key key) {
+        return pending.containsKey(key) || flushing.containsKey(key);
+    }
+
+    /** Trạng thái chưa ghi xuống DB của cặp (user, post), null nếu không có. */
+    public Boolean pendingState(String userId, String postId) {
+        Key key = new Key(userId, postId);
+        Toggle toggle = pending.get(key);
+        if (toggle == null) {
+            toggle = flushing.get(key);
+        }
+        return toggle == null ? null : toggle.liked();
+    }
+
+    /** Các thao tác còn trong buffer của một bài: userId → trạng thái like mong muốn. */
+    public Map<String, Boolean> pendingForPost(String postId) {
+        Map<String, Boolean> rs = new HashMap<>();
+        // pending ghi đè flushing vì mới hơn
+        for (Map<Key, Toggle> buffer : List.of(flushing, pending)) {
+            buffer.forEach((key, toggle) -> {
+                if (key.postId().equals(postId)) {
+                    rs.put(key.userId(), toggle.liked());
+                }
+            });
+        }
+        return rs;
+    }
+
+    /** Read-your-writes: sửa tập bài đã like (đọc từ DB) theo các thao tác còn trong buffer. */
+    public void overlay(String userId, Collection<String> postIds, Set<String> likedIds) {
+        if (pending.isEmpty() && flushing.isEmpty()) {
+            return;
+        }
+        for (String postId : postIds) {
+            Boolean state = pendingState(userId, postId);
+            if (state == null) {
+                continue;
+            }
+            if (state) {
+                likedIds.add(postId);
+            } else {
+                likedIds.remove(postId);
+            }
+        }
+    }
+
+    /**
+     * Chênh lệch số like của từng bài do các thao tác chưa ghi xuống post_like
+     * (like chờ insert là +1, unlike chờ delete là -1).
+     */
+    public Map<String, Long> unwrittenDelta(Collection<String> postIds) {
+        Set<String> wanted = Set.copyOf(postIds);
+        Map<String, Long> rs = new HashMap<>();
+        for (Map<Key, Toggle> buffer : List.of(flushing, pending)) {
+            buffer.forEach((key, toggle) -> {
+                if (wanted.contains(key.postId()) && toggle.liked() != toggle.persisted()) {
+                    rs.merge(key.postId(), toggle.liked() ? 1L : -1L, Long::sum);
+                }
+            });
+        }
+        return rs;
+    }
+
+    /**
+     * Chạy {@code action} khi không có flush nào đang ghi và không có thao tác like mới được nhận,
+     * để số dòng post_like đọc từ DB và {@link #unwrittenDelta} là một snapshot nhất quán.
+     */
+    public synchronized <T> T withWritesPaused(Supplier<T> action) {
+        swapLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${post.like.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<Key, Toggle> drained;
+        swapLock.writeLock().lock();
+        try {
+            drained = pending;
+            flushing = drained;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        List<Key> inserts = new ArrayList<>();
+        List<Key> deletes = new ArrayList<>();
+        drained.forEach((key, toggle) -> (toggle.liked() ? inserts : deletes).add(key));
+
+        try {
+            write(INSERT_SQL, inserts, drained, true);
+            write(DELETE_SQL, deletes, drained, false);
+        } finally {
+            // Đổi dưới write lock: set() đang giữ read lock luôn thấy flushing nhất quán với flushGeneration
+            swapLock.writeLock().lock();
+            try {
+                flushGeneration.incrementAndGet();
+                flushing = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(String sql, List<Key> keys, Map<Key, Toggle> drained, boolean insert) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Key> failed = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += BATCH_SIZE) {
+            List<Key> chunk = keys.subList(from, Math.min(from + BATCH_SIZE, keys.size()));
+            List<Object[]> args = chunk.stream()
+                    .map(k -> insert
+                            ? new Object[]{UUID.randomUUID().toString(), k.userId(), k.postId(), now}
+                            : new Object[]{k.userId(), k.postId()})
+                    .toList();
+            int[] affected;
+            boolean aborted = false;
+            try {
+                affected = jdbcTemplate.batchUpdate(sql, args);
+            } catch (DataAccessException e) {
+                // Các câu lệnh đã chạy trước lỗi đã được commit; chỉ ghi lại phần chưa chạy
+                log.warn("Flush likes failed", e);
+                affected = BatchUpdates.updateCounts(e);
+                aborted = true;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!BatchUpdates.executed(affected, i)) {
+                    failed.add(chunk.get(i));
+                } else if (affected[i] == 0) {
+                    // Dòng đã tồn tại (insert bị bỏ qua) / đã bị xóa từ trước: trả lại phần đã cộng vào like_count
+                    postCounterService.incrementLikes(chunk.get(i).postId(), insert ? -1 : 1);
+                }
+            }
+            if (aborted) {
+                failed.addAll(keys.subList(from + chunk.size(), keys.size()));
+                break;
+            }
+        }
+        if (!failed.isEmpty()) {
+            log.warn("{} like toggles re-queued", failed.size());
+            requeue(failed, drained);
+        }
+    }
+
+    // Trả các thao tác chưa ghi được về buffer; nếu user đã thao tác tiếp trên cặp đó
+    // thì giữ trạng thái mới nhất nhưng với trạng thái DB thật (chưa được ghi)
+    private void requeue(List<Key> failed, Map<Key, Toggle> drained) {
+        swapLock.readLock().lock();
+        try {
+            for (Key key : failed) {
+                Toggle unwritten = drained.get(key);
+                pending.compute(key, (k, cur) -> {
+                    Toggle merged = cur == null ? unwritten : new Toggle(unwritten.persisted(), cur.liked());
+                    return merged.persisted() == merged.liked() ? null : merged;
+                });
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private enum Transition {
+        CHANGED, UNCHANGED, RETRY
+    }
+
+    private record Key(String userId, String postId) {
+    }
+
+    // persisted: trạng thái trong DB khi bắt đầu buffer; liked: trạng thái mong muốn
+    private record Toggle(boolean persisted, boolean liked) {
+    }
+}
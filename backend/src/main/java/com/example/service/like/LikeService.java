@@ -1,25 +1,173 @@
 package com.example.service.like;
 
+import com.example.dto.projection.LikerRow;
 import com.example.dto.request.LikeRequest;
-import com.example.entity.Like;
-import com.example.mapper.LikeMapper;
+import com.example.dto.response.like.LikedByResponse;
+import com.example.dto.response.like.LikerResponse;
+import com.example.event.EngagementEvent;
+import com.example.event.PostLikeChangedEvent;
 import com.example.repository.like.LikeRepository;
+import com.example.service.post.HotPostDetector;
+import com.example.service.post.PostCard;
+import com.example.service.post.PostCardCache;
+import com.example.service.post.PostCounterService;
+import com.example.service.user.UserExistenceCache;
+import com.example.utils.KeysetCursor;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class LikeService {
-    private final LikeMapper mapper;
-    private final LikeRepository repo;
+    public static final int DEFAULT_LIKERS_PAGE_SIZE = 20;
+    public static final int MAX_LIKERS_PAGE_SIZE = 50;
+    // Tiền tố trong id của cursor cho biết đang duyệt nhóm nào
+    private static final String FOLLOWED_PHASE = "f:";
+    private static final String OTHERS_PHASE = "o:";
+
+    private final LikeRepository likeRepository;
+    private final PostCounterService postCounterService;
+    private final LikeBuffer likeBuffer;
+    private final LikerBitmapIndex likerBitmapIndex;
+    private final HotPostDetector hotPostDetector;
+    private final PostCardCache postCardCache;
+    private final UserExistenceCache userExistenceCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public Like like(LikeRequest request){
-        Like like = mapper.toLike(request);
-        return repo.save(like);
+    // Like lặp lại là no-op; bản ghi được ghi xuống DB theo lô bởi LikeBuffer
+    public void like(LikeRequest request) {
+        toggle(request, true);
     }
 
     public void unlike(LikeRequest request) {
-        repo.findByUserIdAndPostId(request.getUser_Id(), request.getPost_Id())
-                .ifPresent(repo::delete);
+        toggle(request, false);
+    }
+
+    private void toggle(LikeRequest request, boolean liked) {
+        // Kiểm tra id qua cache thay vì findById user + post cho mỗi lần bấm
+        if (!userExistenceCache.exists(request.getUser_Id())) {
+            throw new EntityNotFoundException("User not found with id: " + request.getUser_Id());
+        }
+        PostCard post = postCardCache.getCard(request.getPost_Id());
+        if (post == null) {
+            throw new EntityNotFoundException("Post not found with id: " + request.getPost_Id());
+        }
+
+        hotPostDetector.record(request.getPost_Id());
+        if (likeBuffer.set(request.getUser_Id(), request.getPost_Id(), liked)) {
+            likerBitmapIndex.onToggle(request.getPost_Id(), request.getUser_Id(), liked);
+            eventPublisher.publishEvent(new EngagementEvent(request.getUser_Id(), post.user().getId(),
+                    liked ? EngagementEvent.Type.LIKE : EngagementEvent.Type.UNLIKE));
+            eventPublisher.publishEvent(new PostLikeChangedEvent(request.getPost_Id(), liked ? 1 : -1));
+        }
+    }
+
+    /**
+     * Danh sách người đã like bài, người viewer đang theo dõi đứng trước.
+     * Duyệt hết nhóm "đang theo dõi" rồi mới sang nhóm còn lại; cả hai nhóm đều là keyset
+     * theo (createAt, id) nên không phải load toàn bộ post.getLikes() hay tập following vào bộ nhớ.
+     *
+     * @throws IllegalArgumentException nếu cursor không hợp lệ
+     */
+    public LikedByResponse getLikedBy(String postId, String viewerId, String cursor, int size) {
+        PostCard post = postCardCache.getCard(postId);
+        if (post == null) {
+            throw new EntityNotFoundException("Post not found with id: " + postId);
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        boolean followedPhase = true;
+        String afterId = null;
+        if (after != null) {
+            if (after.id().startsWith(FOLLOWED_PHASE)) {
+                afterId = after.id().substring(FOLLOWED_PHASE.length());
+            } else if (after.id().startsWith(OTHERS_PHASE)) {
+                followedPhase = false;
+                afterId = after.id().substring(OTHERS_PHASE.length());
+            } else {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        int limit = Math.min(Math.max(size, 1), MAX_LIKERS_PAGE_SIZE);
+        List<LikerResponse> items = new ArrayList<>(limit);
+        String nextCursor = null;
+
+        if (followedPhase) {
+            // Lấy dư 1 phần tử để biết nhóm này còn hay không
+            PageRequest page = PageRequest.of(0, limit + 1);
+            List<LikerRow> rows = afterId == null || afterId.isEmpty()
+                    ? likeRepository.findFollowedLikersFirstPage(postId, viewerId, page)
+                    : likeRepository.findFollowedLikersAfter(postId, viewerId, after.timestamp(), afterId, page);
+            if (rows.size() > limit) {
+                rows = rows.subList(0, limit);
+                nextCursor = cursorOf(FOLLOWED_PHASE, rows.get(rows.size() - 1));
+            }
+            rows.forEach(row -> items.add(toLikerResponse(row, true)));
+            // Hết nhóm đang theo dõi: phần còn lại của trang lấy từ đầu nhóm kia
+            afterId = null;
+        }
+
+        if (nextCursor == null) {
+            int remaining = limit - items.size();
+            PageRequest page = PageRequest.of(0, remaining + 1);
+            List<LikerRow> rows = afterId == null || afterId.isEmpty()
+                    ? likeRepository.findOtherLikersFirstPage(postId, viewerId, page)
+                    : likeRepository.findOtherLikersAfter(postId, viewerId, after.timestamp(), afterId, page);
+            if (rows.size() > remaining) {
+                rows = rows.subList(0, remaining);
+                // Trang đã đầy bởi nhóm đang theo dõi: trang sau bắt đầu từ đầu nhóm còn lại
+                nextCursor = rows.isEmpty()
+                        ? new KeysetCursor(items.get(items.size() - 1).getLikedAt(), OTHERS_PHASE).encode()
+                        : cursorOf(OTHERS_PHASE, rows.get(rows.size() - 1));
+            }
+            rows.forEach(row -> items.add(toLikerResponse(row, false)));
+        }
+
+        // Tổng lấy từ cột đếm sẵn + delta chưa flush, không đếm lại từ bảng post_like
+        long likeCount = Math.max(0, post.likeCount() + postCounterService.pendingLikes(postId));
+        return LikedByResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .likeCount(likeCount)
+                .summary(after == null ? summarize(items, likeCount) : null)
+                .build();
+    }
+
+    // Dòng tóm tắt dựng từ phần tử đầu của trang đầu (ưu tiên người đang theo dõi)
+    private static String summarize(List<LikerResponse> items, long likeCount) {
+        if (likeCount == 0) {
+            return "Chưa có lượt thích";
+        }
+        if (items.isEmpty()) {
+            // Các like còn nằm trong buffer, chưa có dòng nào trong DB
+            return likeCount + " lượt thích";
+        }
+        String first = items.get(0).getUserName();
+        return likeCount == 1
+                ? "Được thích bởi " + first
+                : "Được thích bởi " + first + " và " + (likeCount - 1) + " người khác";
+    }
+
+    private static String cursorOf(String phase, LikerRow row) {
+        return new KeysetCursor(row.likedAt(), phase + row.likeId()).encode();
+    }
+
+    private static LikerResponse toLikerResponse(LikerRow row, boolean followed) {
+        return LikerResponse.builder()
+                .userId(row.userId())
+                .userName(row.userName())
+                .fullName(row.fullName())
+                .profileImage(row.profileImage())
+                .followed(followed)
+                .likedAt(row.likedAt())
+                .build();
     }
 }
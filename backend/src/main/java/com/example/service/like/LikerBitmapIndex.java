@@ -0,0 +1,207 @@
+package com.example.service.like;
+
+import com.example.event.PostDeletedEvent;
+import com.example.repository.like.LikeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Tập người đã like của các bài "nóng" (like_count >= ngưỡng), lưu bằng RoaringBitmap theo ordinal của user.
+ * Kiểm tra "viewer đã like chưa" là O(1) và không query DB; vài triệu like chỉ tốn vài MB.
+ * Bitmap được dựng bất đồng bộ trên pool riêng ở lần đầu cần tới (đọc post_like theo chunk), trong lúc dựng
+ * người gọi dùng query thường và các like/unlike mới được ghi lại để áp dụng sau khi dựng xong.
+ * Sau đó bitmap được cập nhật trực tiếp khi like/unlike và được cân lại trong cache.
+ */
+@Slf4j
+@Component
+public class LikerBitmapIndex {
+    private static final int LOAD_CHUNK = 10_000;
+
+    private final LikeRepository likeRepository;
+    private final LikeBuffer likeBuffer;
+    private final UserOrdinalRegistry ordinals;
+    private final Cache<String, Entry> entries;
+    private final ExecutorService loader;
+    private final long threshold;
+
+    public LikerBitmapIndex(LikeRepository likeRepository,
+                            LikeBuffer likeBuffer,
+                            UserOrdinalRegistry ordinals,
+                            MeterRegistry meterRegistry,
+                            @Value("${post.like.bitmap-threshold:1000}") long threshold,
+                            @Value("${post.like.bitmap-max-bytes:67108864}") long maxBytes,
+                            @Value("${post.like.bitmap-loader-threads:2}") int loaderThreads) {
+        this.likeRepository = likeRepository;
+        this.likeBuffer = likeBuffer;
+        this.ordinals = ordinals;
+        this.threshold = threshold;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String postId, Entry entry) -> entry.weight)
+                .build();
+        this.loader = Executors.newFixedThreadPool(loaderThreads, new CustomizableThreadFactory("liker-bitmap-"));
+
+        Gauge.builder("post.liker.index.posts", entries, Cache::estimatedSize)
+                .description("Số bài đang có bitmap người like")
+                .register(meterRegistry);
+        Gauge.builder("post.liker.index.weight", entries, c -> c.policy().eviction()
+                        .map(e -> e.weightedSize().orElse(0))
+                        .orElse(0L))
+                .description("Dung lượng các bitmap người like")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("post.liker.index.users", ordinals, o -> o.current().size())
+                .description("Số user đã được cấp ordinal trong generation hiện tại")
+                .register(meterRegistry);
+    }
+
+    /**
+     * true/false nếu trả lời được từ bitmap; null nếu bài chưa đủ nóng hoặc bitmap đang được dựng
+     * (người gọi tự kiểm tra bằng DB).
+     */
+    public Boolean isLiked(String postId, long likeCount, String userId) {
+        Entry entry = entries.getIfPresent(postId);
+        if (entry == null) {
+            if (likeCount < threshold) {
+                return null;
+            }
+            startBuild(postId);
+            return null;
+        }
+        // Bảng ordinal đã sang generation mới: bỏ bitmap cũ để lần sau dựng lại
+        if (entry.ordinals != ordinals.current()) {
+            entries.asMap().remove(postId, entry);
+            return null;
+        }
+        synchronized (entry) {
+            if (entry.bitmap == null) {
+                return null;
+            }
+            int ordinal = entry.ordinals.ordinalIfPresent(userId);
+            return ordinal >= 0 && entry.bitmap.contains(ordinal);
+        }
+    }
+
+    public void onToggle(String postId, String userId, boolean liked) {
+        Entry entry = entries.getIfPresent(postId);
+        if (entry == null) {
+            return;
+        }
+        // Hai toggle liên tiếp có thể gọi tới đây lệch thứ tự; trạng thái trong buffer luôn là mới nhất
+        Boolean buffered = likeBuffer.pendingState(userId, postId);
+        boolean state = buffered != null ? buffered : liked;
+        synchronized (entry) {
+            if (entry.bitmap == null) {
+                // Đang dựng: áp dụng sau khi dựng xong
+                entry.toggles.put(userId, state);
+                return;
+            }
+            apply(entry.bitmap, entry.ordinals.ordinalOf(userId), state);
+            entry.weight = entry.bitmap.getSizeInBytes();
+        }
+        reweigh(postId, entry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        entries.invalidate(event.postId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    private void startBuild(String postId) {
+        Entry entry = new Entry(ordinals.current());
+        if (entries.asMap().putIfAbsent(postId, entry) != null) {
+            return;
+        }
+        try {
+            loader.execute(() -> build(postId, entry));
+        } catch (RejectedExecutionException e) {
+            entries.asMap().remove(postId, entry);
+        }
+    }
+
+    void build(String postId, Entry entry) {
+        try {
+            // Chụp buffer trước khi đọc DB: thao tác được flush trong lúc đọc vẫn nằm trong bản chụp
+            Map<String, Boolean> buffered = likeBuffer.pendingForPost(postId);
+            RoaringBitmap bitmap = new RoaringBitmap();
+            Pageable chunk = PageRequest.of(0, LOAD_CHUNK);
+            String lastUserId = "";
+            while (true) {
+                List<String> userIds = likeRepository.findLikerIdsAfter(postId, lastUserId, chunk);
+                for (String userId : userIds) {
+                    bitmap.add(entry.ordinals.ordinalOf(userId));
+                }
+                if (userIds.size() < LOAD_CHUNK) {
+                    break;
+                }
+                lastUserId = userIds.get(userIds.size() - 1);
+            }
+            // Like/unlike còn trong buffer chưa có trong DB
+            buffered.forEach((userId, liked) -> apply(bitmap, entry.ordinals.ordinalOf(userId), liked));
+            synchronized (entry) {
+                // Like/unlike đến trong lúc dựng, mới hơn bản chụp buffer
+                entry.toggles.forEach((userId, liked) -> apply(bitmap, entry.ordinals.ordinalOf(userId), liked));
+                entry.toggles.clear();
+                bitmap.runOptimize();
+                entry.bitmap = bitmap;
+                entry.weight = bitmap.getSizeInBytes();
+            }
+            reweigh(postId, entry);
+            log.debug("Built liker bitmap for post {}: {} users, {} bytes", postId, bitmap.getCardinality(), bitmap.getSizeInBytes());
+        } catch (RuntimeException e) {
+            // Bỏ entry lỗi, lần sau dựng lại
+            entries.asMap().remove(postId, entry);
+            log.warn("Failed to build liker bitmap for post {}", postId, e);
+        }
+    }
+
+    // Weigher chỉ chạy khi ghi vào cache nên phải ghi lại entry mỗi khi bitmap lớn lên;
+    // replace có điều kiện để không hồi sinh entry vừa bị xóa
+    private void reweigh(String postId, Entry entry) {
+        entries.asMap().replace(postId, entry, entry);
+    }
+
+    private void apply(RoaringBitmap bitmap, int ordinal, boolean liked) {
+        if (liked) {
+            bitmap.add(ordinal);
+        } else {
+            bitmap.remove(ordinal);
+        }
+    }
+
+    static final class Entry {
+        private final UserOrdinalRegistry.Generation ordinals;
+        private final Map<String, Boolean> toggles = new HashMap<>();
+        // null khi đang dựng
+        private RoaringBitmap bitmap;
+        private volatile int weight;
+
+        Entry(UserOrdinalRegistry.Generation ordinals) {
+            this.ordinals = ordinals;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.service.like;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gán cho mỗi user một số nguyên liên tiếp (0, 1, 2...) trong tiến trình, để các tập user
+ * được biểu diễn bằng bitmap nén. Chỉ các user xuất hiện trong bitmap mới được cấp ordinal.
+ * <p>
+ * Ordinal không được lưu xuống đâu cả: sau khi restart, bảng và các bitmap đều được dựng lại từ post_like.
+ * Để bảng không lớn mãi, khi số user vượt giới hạn thì bắt đầu một {@link Generation} mới; bitmap dựng
+ * trên generation cũ bị coi là hết hạn và được dựng lại, bảng cũ được GC khi không còn bitmap nào dùng.
+ */
+@Component
+public class UserOrdinalRegistry {
+    private final int maxUsers;
+    private volatile Generation current = new Generation();
+
+    public UserOrdinalRegistry(@Value("${post.like.ordinal-max-users:1000000}") int maxUsers) {
+        this.maxUsers = maxUsers;
+    }
+
+    /** Bảng ordinal đang dùng cho các bitmap mới. */
+    public Generation current() {
+        Generation generation = current;
+        if (generation.size() < maxUsers) {
+            return generation;
+        }
+        synchronized (this) {
+            if (current == generation) {
+                current = new Generation();
+            }
+            return current;
+        }
+    }
+
+    public static final class Generation {
+        private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        public int ordinalOf(String userId) {
+            return ordinals.computeIfAbsent(userId, id -> next.getAndIncrement());
+        }
+
+        /** -1 nếu user chưa có ordinal, tức là chưa có trong bitmap nào của generation này. */
+        public int ordinalIfPresent(String userId) {
+            return ordinals.getOrDefault(userId, -1);
+        }
+
+        public int size() {
+            return ordinals.size();
+        }
+    }
+}
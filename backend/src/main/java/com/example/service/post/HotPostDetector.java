@@ -0,0 +1,125 @@
+package com.example.service.post;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Phát hiện bài đang "nóng" dựa trên tốc độ like/unlike trong cửa sổ trượt (mặc định 10 giây, bucket 1 giây).
+ * Bài vượt ngưỡng được đánh dấu hot; khi tốc độ giảm dưới một nửa ngưỡng liên tục trong thời gian
+ * cool-down thì bỏ đánh dấu (có trễ để không bật/tắt liên tục quanh ngưỡng).
+ */
+@Slf4j
+@Component
+public class HotPostDetector {
+    private final int windowSeconds;
+    private final double hotRate;
+    private final long cooldownMs;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    // postId → thông tin lúc bài được đánh dấu hot
+    private final Map<String, HotPost> hotPosts = new ConcurrentHashMap<>();
+
+    public HotPostDetector(@Value("${post.hot.window-seconds:10}") int windowSeconds,
+                           @Value("${post.hot.rate-per-second:20}") double hotRate,
+                           @Value("${post.hot.cooldown-ms:60000}") long cooldownMs) {
+        this.windowSeconds = windowSeconds;
+        this.hotRate = hotRate;
+        this.cooldownMs = cooldownMs;
+    }
+
+    public void record(String postId) {
+        long second = System.currentTimeMillis() / 1000;
+        Window window = windows.computeIfAbsent(postId, id -> new Window(windowSeconds));
+        window.add(second);
+        if (!hotPosts.containsKey(postId) && window.rate(second) >= hotRate) {
+            long now = System.currentTimeMillis();
+            if (hotPosts.putIfAbsent(postId, new HotPost(now, now)) == null) {
+                log.info("Post {} is hot ({} likes/s)", postId, String.format("%.1f", window.rate(second)));
+            }
+        }
+    }
+
+    public boolean isHot(String postId) {
+        return hotPosts.containsKey(postId);
+    }
+
+    /** Bài đang hot kèm tốc độ hiện tại (likes/giây). */
+    public Map<String, Double> hotPostRates() {
+        long second = System.currentTimeMillis() / 1000;
+        Map<String, Double> rs = new ConcurrentHashMap<>();
+        for (String postId : hotPosts.keySet()) {
+            Window window = windows.get(postId);
+            rs.put(postId, window == null ? 0 : window.rate(second));
+        }
+        return rs;
+    }
+
+    // Hạ nhiệt các bài đã nguội và bỏ cửa sổ của bài không còn traffic
+    @Scheduled(fixedDelayString = "${post.hot.evaluate-interval-ms:1000}")
+    public void evaluate() {
+        long now = System.currentTimeMillis();
+        long second = now / 1000;
+        hotPosts.replaceAll((postId, hot) -> {
+            Window window = windows.get(postId);
+            double rate = window == null ? 0 : window.rate(second);
+            return rate >= hotRate / 2 ? new HotPost(hot.since(), now) : hot;
+        });
+        hotPosts.entrySet().removeIf(e -> {
+            boolean cooled = now - e.getValue().lastAbove() > cooldownMs;
+            if (cooled) {
+                log.info("Post {} cooled down", e.getKey());
+            }
+            return cooled;
+        });
+        windows.entrySet().removeIf(e -> !hotPosts.containsKey(e.getKey()) && e.getValue().isIdle(second));
+    }
+
+    // lastAbove: lần cuối tốc độ còn trên một nửa ngưỡng
+    private record HotPost(long since, long lastAbove) {
+    }
+
+    /** Vòng bucket theo giây; bucket cũ được reset khi vòng quay lại. */
+    private static final class Window {
+        private final AtomicLongArray counts;
+        private final AtomicLongArray seconds;
+
+        Window(int size) {
+            this.counts = new AtomicLongArray(size);
+            this.seconds = new AtomicLongArray(size);
+        }
+
+        void add(long second) {
+            int i = (int) (second % counts.length());
+            long bucketSecond = seconds.get(i);
+            if (bucketSecond != second && seconds.compareAndSet(i, bucketSecond, second)) {
+                counts.set(i, 0);
+            }
+            counts.incrementAndGet(i);
+        }
+
+        double rate(long second) {
+            long total = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                if (second - seconds.get(i) < counts.length()) {
+                    total += counts.get(i);
+                }
+            }
+            return (double) total / counts.length();
+        }
+
+        boolean isIdle(long second) {
+            for (int i = 0; i < seconds.length(); i++) {
+                if (second - seconds.get(i) < seconds.length()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
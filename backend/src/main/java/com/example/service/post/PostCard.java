@@ -0,0 +1,42 @@
+package com.example.service.post;
+
+import com.example.dto.response.user.UserResponse;
+import com.example.entity.PostImages;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Phần không phụ thuộc viewer của một bài trên feed, được cache theo post id.
+ * Số like/comment trong cache chỉ là giá trị lúc nạp: {@link PostCardCache} ghép cột đếm hiện tại khi đọc,
+ * liked/saved và delta like/comment chưa flush được ghép vào lúc trả response.
+ */
+public record PostCard(String id,
+                       String content,
+                       LocalDateTime createAt,
+                       List<PostImages> images,
+                       long likeCount,
+                       long commentCount,
+                       UserResponse user) {
+
+    public PostCard withCounters(long likeCount, long commentCount) {
+        return new PostCard(id, content, createAt, images, likeCount, commentCount, user);
+    }
+
+    // Ước lượng kích thước trong heap (byte), dùng làm weigher của cache
+    public int estimatedBytes() {
+        int bytes = 160 + chars(id) + chars(content);
+        for (PostImages image : images) {
+            bytes += 48 + chars(image.getId()) + chars(image.getUrlImage());
+        }
+        if (user != null) {
+            bytes += 96 + chars(user.getId()) + chars(user.getUserName()) + chars(user.getFullName())
+                    + chars(user.getEmail()) + chars(user.getProfileImage()) + chars(user.getBio());
+        }
+        return bytes;
+    }
+
+    private static int chars(String value) {
+        return value == null ? 0 : 40 + value.length() * 2;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.service.post;
+
+import com.example.dto.projection.PostCounters;
+import com.example.event.PostDeletedEvent;
+import com.example.mapper.PostMapper;
+import com.example.repository.post.PostRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache {@link PostCard} theo post id, giới hạn theo dung lượng ước lượng (weigher).
+ * Cột like_count / comment_count không lấy từ cache mà được đọc lại mỗi lần (một lookup theo khóa chính
+ * cho cả trang) rồi ghép vào card, nên flush bộ đếm không phải xóa entry: bài hot giữ nguyên trong cache
+ * và không có card nạp trước flush nào mang số đếm cũ. Entry chỉ bị xóa khi bài bị xóa;
+ * expire-after-write chặn trên độ cũ của thông tin tác giả (tên, avatar).
+ */
+@Component
+public class PostCardCache {
+    private static final String CACHE_NAME = "post.cards";
+
+    private final PostRepository postRepository;
+    private final PostMapper postMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final Cache<String, PostCard> cache;
+
+    public PostCardCache(PostRepository postRepository,
+                         PostMapper postMapper,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${post.card-cache.max-bytes:33554432}") long maxBytes,
+                         @Value("${post.card-cache.expire-minutes:10}") long expireMinutes) {
+        this.postRepository = postRepository;
+        this.postMapper = postMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String id, PostCard card) -> card.estimatedBytes())
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+                .recordStats()
+                .build();
+
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size...
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("post.card.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Tỉ lệ hit của cache post card")
+                .register(meterRegistry);
+        Gauge.builder("post.card.cache.weight", cache, c -> c.policy().eviction()
+                        .map(e -> e.weightedSize().orElse(0))
+                        .orElse(0L))
+                .description("Dung lượng ước lượng của cache post card")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    // Card theo đúng thứ tự ids, kèm cột đếm hiện tại; bài không còn tồn tại bị bỏ qua
+    public List<PostCard> getCards(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, PostCard> cards = cache.getAll(ids, this::load);
+        Map<String, PostCounters> counters = postRepository.findCountersByIdIn(ids).stream()
+                .collect(Collectors.toMap(PostCounters::id, Function.identity()));
+        List<PostCard> rs = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            PostCard card = cards.get(id);
+            PostCounters current = counters.get(id);
+            if (card != null && current != null) {
+                rs.add(card.withCounters(current.likeCount(), current.commentCount()));
+            }
+        }
+        return rs;
+    }
+
+    public PostCard getCard(String postId) {
+        if (postId == null) {
+            return null;
+        }
+        List<PostCard> cards = getCards(List.of(postId));
+        return cards.isEmpty() ? null : cards.get(0);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        cache.invalidate(event.postId());
+    }
+
+    // Chỉ mở transaction khi cache miss; ảnh được nạp theo lô trong cùng transaction
+    private Map<String, PostCard> load(Set<? extends String> missing) {
+        return readOnlyTx.execute(status -> postRepository.findByIdIn(new ArrayList<>(missing)).stream()
+                .map(postMapper::toPostCard)
+                .collect(Collectors.toMap(PostCard::id, Function.identity())));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.service.post;
+
+import com.example.dto.projection.IdCount;
+import com.example.repository.comment.CommentRepository;
+import com.example.repository.like.LikeRepository;
+import com.example.repository.post.PostRepository;
+import com.example.service.like.LikeBuffer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Đối soát like_count / comment_count với bảng nguồn (post_like, comment) theo từng chunk id,
+ * sửa lại sai lệch do flush lỗi hoặc dữ liệu có từ trước khi thêm cột.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostCounterReconciliationJob {
+    private static final String UPDATE_SQL = "UPDATE post SET like_count = ?, comment_count = ? WHERE id = ?";
+
+    private final PostRepository postRepository;
+    private final LikeRepository likeRepository;
+    private final CommentRepository commentRepository;
+    private final PostCounterService postCounterService;
+    private final LikeBuffer likeBuffer;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${post.counter.reconcile-chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${post.counter.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        String lastId = "";
+        int total = 0;
+        while (true) {
+            List<String> ids = postRepository.findIdsAfter(lastId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            // Đếm và ghi khi cả hai buffer tạm dừng nhận thao tác mới và không flush,
+            // để phần delta đang chờ không bị cộng hai lần (một lần trong số đếm, một lần khi flush)
+            likeBuffer.withWritesPaused(() -> postCounterService.withWritesPaused(() -> {
+                reconcileChunk(ids);
+                return null;
+            }));
+
+            total += ids.size();
+            lastId = ids.get(ids.size() - 1);
+        }
+        log.info("Reconciled counters of {} posts", total);
+    }
+
+    /**
+     * Giá trị ghi vào cột = giá trị đúng sau khi mọi buffer đã flush, trừ đi phần delta mà lần flush sau
+     * sẽ cộng vào: like_count = số dòng post_like + thao tác like chưa ghi - delta like chờ flush.
+     */
+    void reconcileChunk(List<String> ids) {
+        Map<String, Long> likes = toMap(likeRepository.countByPostIds(ids));
+        Map<String, Long> comments = toMap(commentRepository.countByPostIds(ids));
+        Map<String, Long> unwrittenLikes = likeBuffer.unwrittenDelta(ids);
+        List<Object[]> rows = ids.stream()
+                .map(id -> new Object[]{
+                        likes.getOrDefault(id, 0L) + unwrittenLikes.getOrDefault(id, 0L) - postCounterService.pendingLikes(id),
+                        comments.getOrDefault(id, 0L) - postCounterService.pendingComments(id),
+                        id})
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+    }
+
+    private Map<String, Long> toMap(List<IdCount> counts) {
+        return counts.stream().collect(Collectors.toMap(IdCount::id, IdCount::count));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.service.post;
+
+import com.example.utils.BatchUpdates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind cho like_count / comment_count của Post.
+ * Các thay đổi được cộng vào LongAdder (striped) trong bộ nhớ rồi flush xuống DB theo lô.
+ * Bài đang hot (xem {@link HotPostDetector}) dùng buffer riêng, gộp xuống DB thưa hơn để không
+ * UPDATE liên tục lên cùng một dòng.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostCounterService {
+    private static final String FLUSH_SQL = "UPDATE post SET like_count = GREATEST(like_count + ?, 0), " +
+            "comment_count = GREATEST(comment_count + ?, 0) WHERE id = ?";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HotPostDetector hotPostDetector;
+
+    private final CounterBuffer normal = new CounterBuffer();
+    private final CounterBuffer hot = new CounterBuffer();
+
+    public void incrementLikes(String postId, long delta) {
+        bufferFor(postId).add(postId, delta, true);
+    }
+
+    public void incrementComments(String postId, long delta) {
+        bufferFor(postId).add(postId, delta, false);
+    }
+
+    private CounterBuffer bufferFor(String postId) {
+        return hotPostDetector.isHot(postId) ? hot : normal;
+    }
+
+    /** Delta chưa ghi xuống DB, cộng vào giá trị cột khi trả về cho client. */
+    public long pendingLikes(String postId) {
+        // Bài vừa đổi trạng thái hot có thể còn delta ở cả hai buffer
+        return normal.sum(postId, true) + hot.sum(postId, true);
+    }
+
+    public long pendingComments(String postId) {
+        return normal.sum(postId, false) + hot.sum(postId, false);
+    }
+
+    @Scheduled(fixedDelayString = "${post.counter.flush-interval-ms:5000}")
+    public void flush() {
+        write(normal);
+    }
+
+    @Scheduled(fixedDelayString = "${post.counter.hot-merge-interval-ms:30000}")
+    public void mergeHot() {
+        write(hot);
+    }
+
+    private synchronized void write(CounterBuffer buffer) {
+        Deltas drained = buffer.drain();
+        if (drained.isEmpty()) {
+            buffer.clearFlushing();
+            return;
+        }
+
+        Set<String> postIds = new HashSet<>(drained.likes.keySet());
+        postIds.addAll(drained.comments.keySet());
+        List<Object[]> rows = new ArrayList<>(postIds.size());
+        for (String postId : postIds) {
+            long likes = sum(drained.likes, postId);
+            long comments = sum(drained.comments, postId);
+            if (likes != 0 || comments != 0) {
+                rows.add(new Object[]{likes, comments, postId});
+            }
+        }
+
+        int from = 0;
+        try {
+            for (; from < rows.size(); from += BATCH_SIZE) {
+                List<Object[]> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+                jdbcTemplate.batchUpdate(FLUSH_SQL, chunk);
+            }
+        } catch (DataAccessException e) {
+            // Chunk lỗi có thể đã ghi được một phần (không có transaction bao ngoài):
+            // chỉ trả về buffer các dòng chưa được ghi để lần flush sau ghi lại
+            int[] counts = BatchUpdates.updateCounts(e);
+            int failed = 0;
+            for (int i = from; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                if (i >= from + BATCH_SIZE || !BatchUpdates.executed(counts, i - from)) {
+                    incrementLikes((String) row[2], (long) row[0]);
+                    incrementComments((String) row[2], (long) row[1]);
+                    failed++;
+                }
+            }
+            log.warn("Flush post counters failed, {} posts re-queued", failed, e);
+        } finally {
+            buffer.clearFlushing();
+        }
+    }
+
+    /**
+     * Chạy {@code action} khi không có flush nào đang ghi và không có delta mới được cộng vào buffer,
+     * để số đếm đọc từ DB và {@link #pendingLikes} / {@link #pendingComments} là một snapshot nhất quán.
+     * Dùng cho đối soát; các thao tác like / comment chờ trong lúc này nên action cần ngắn.
+     */
+    public synchronized <T> T withWritesPaused(Supplier<T> action) {
+        normal.pauseWrites();
+        hot.pauseWrites();
+        try {
+            return action.get();
+        } finally {
+            hot.resumeWrites();
+            normal.resumeWrites();
+        }
+    }
+
+    private static long sum(Map<String, LongAdder> deltas, String postId) {
+        LongAdder adder = deltas.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static final class CounterBuffer {
+        // Writer giữ read lock khi cộng delta; flush giữ write lock trong lúc đổi buffer
+        private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+        private volatile Deltas pending = new Deltas();
+        // Buffer đang được ghi xuống DB, vẫn tính vào giá trị đọc để không bị hụt
+        private volatile Deltas flushing = new Deltas();
+
+        void add(String postId, long delta, boolean like) {
+            swapLock.readLock().lock();
+            try {
+                Map<String, LongAdder> target = like ? pending.likes : pending.comments;
+                target.computeIfAbsent(postId, id -> new LongAdder()).add(delta);
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        }
+
+        long sum(String postId, boolean like) {
+            return like
+                    ? PostCounterService.sum(pending.likes, postId) + PostCounterService.sum(flushing.likes, postId)
+                    : PostCounterService.sum(pending.comments, postId) + PostCounterService.sum(flushing.comments, postId);
+        }
+
+        Deltas drain() {
+            swapLock.writeLock().lock();
+            try {
+                Deltas drained = pending;
+                flushing = drained;
+                pending = new Deltas();
+                return drained;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+
+        void pauseWrites() {
+            swapLock.writeLock().lock();
+        }
+
+        void resumeWrites() {
+            swapLock.writeLock().unlock();
+        }
+
+        void clearFlushing() {
+            flushing = new Deltas();
+        }
+    }
+
+    private static final class Deltas {
+        private final Map<String, LongAdder> likes = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> comments = new ConcurrentHashMap<>();
+
+        boolean isEmpty() {
+            return likes.isEmpty() && comments.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.service.post;
+
+import com.example.dto.projection.PostGridRow;
+import com.example.dto.projection.PostImageRow;
+import com.example.dto.response.user.PostProfileResponse;
+import com.example.entity.PostImages;
+import com.example.mapper.UserMapper;
+import com.example.repository.post.PostImagesRepository;
+import com.example.repository.post.PostRepository;
+import com.example.repository.savedPost.SavedPostDetailRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Read model cho lưới bài viết (trang cá nhân, bài đã lưu):
+ * một query projection cho các dòng + một query lấy ảnh của cả lưới.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostGridService {
+    private final PostRepository postRepository;
+    private final PostImagesRepository postImagesRepository;
+    private final SavedPostDetailRepository savedPostDetailRepository;
+    private final UserMapper userMapper;
+
+    public List<PostProfileResponse> getUserGrid(String userId) {
+        return withImages(postRepository.findGridRowsByUser(userId));
+    }
+
+    public List<PostProfileResponse> getSavedGrid(String userId) {
+        return withImages(savedPostDetailRepository.findSavedGridRowsByUser(userId));
+    }
+
+    private List<PostProfileResponse> withImages(List<PostGridRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<String> postIds = rows.stream().map(PostGridRow::id).toList();
+        Map<String, List<PostImages>> imagesByPost = postImagesRepository.findRowsByPostIds(postIds).stream()
+                .collect(Collectors.groupingBy(PostImageRow::postId,
+                        Collectors.mapping(this::toImage, Collectors.toList())));
+
+        return rows.stream()
+                .map(row -> userMapper.toPostProfileResponse(row, imagesByPost.getOrDefault(row.id(), List.of())))
+                .toList();
+    }
+
+    private PostImages toImage(PostImageRow row) {
+        PostImages dto = new PostImages();
+        dto.setId(row.id());
+        dto.setUrlImage(row.urlImage());
+        return dto;
+    }
+}
@@ -1,77 +1,151 @@
 package com.example.service.post;
 
+import com.example.dto.projection.PostRef;
 import com.example.dto.request.UpPostRequest;
+import com.example.dto.response.CursorPageResponse;
+import com.example.dto.response.post.NewPostsResponse;
 import com.example.dto.response.post.PostResponse;
 import com.example.dto.response.user.PostProfileResponse;
 import com.example.entity.Post;
-import com.example.entity.SavedPostDetail;
+import com.example.event.PostCreatedEvent;
+import com.example.event.PostDeletedEvent;
 import com.example.mapper.PostMapper;
+import com.example.repository.comment.CommentLikeRepository;
+import com.example.repository.comment.CommentRepository;
 import com.example.repository.post.PostRepository;
-import com.example.repository.savedPost.SavedPostDetailRepository;
+import com.example.utils.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PostService {
+    public static final int DEFAULT_FEED_PAGE_SIZE = 20;
+    public static final int MAX_FEED_PAGE_SIZE = 50;
+    // Số bài mới tối đa trả về khi poll; vượt quá thì client nên tải lại trang đầu
+    public static final int MAX_NEW_POSTS = 100;
+
     private final PostMapper postMapper;
     private final PostRepository repo;
-    private final SavedPostDetailRepository savedPostDetailRepository;
+    private final PostGridService postGridService;
+    private final PostCardCache postCardCache;
+    private final CommentRepository commentRepository;
+    private final CommentLikeRepository commentLikeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<PostResponse> getAllPosts(String currentId) {
         List<Post> post = repo.findByUser_IdNot(currentId, Sort.by(Sort.Direction.DESC, "createAt"));
-        List<PostResponse> rs = new ArrayList<>();
-        for (Post p : post) {
-            rs.add(postMapper.toPostResponse(p, currentId));
+        return postMapper.toPostResponses(post, currentId);
+    }
+
+    public CursorPageResponse<PostResponse> getFeed(String currentId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_PAGE_SIZE);
+        // Lấy dư 1 phần tử để biết còn trang sau hay không
+        Pageable page = PageRequest.of(0, limit + 1);
+
+        List<PostRef> refs = after == null
+                ? repo.findFeedFirstPage(currentId, page)
+                : repo.findFeedPageAfter(currentId, after.timestamp(), after.id(), page);
+
+        boolean hasMore = refs.size() > limit;
+        if (hasMore) {
+            refs = refs.subList(0, limit);
+        }
+
+        List<PostCard> cards = postCardCache.getCards(refs.stream().map(PostRef::id).toList());
+        List<PostResponse> rs = postMapper.fromCards(cards, currentId);
+
+        String nextCursor = null;
+        if (hasMore) {
+            PostRef last = refs.get(refs.size() - 1);
+            nextCursor = new KeysetCursor(last.createAt(), last.id()).encode();
+        }
+        String newestCursor = after == null && !refs.isEmpty()
+                ? new KeysetCursor(refs.get(0).createAt(), refs.get(0).id()).encode()
+                : null;
+        return CursorPageResponse.<PostResponse>builder()
+                .items(rs)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .newestCursor(newestCursor)
+                .build();
+    }
+
+    // Bài mới hơn cursor client đang giữ: chỉ trả số lượng và id
+    public NewPostsResponse getNewPostsSince(String currentId, String cursor) {
+        KeysetCursor since = KeysetCursor.decode(cursor);
+        if (since == null) {
+            throw new IllegalArgumentException("Thiếu cursor");
+        }
+        List<PostRef> refs = repo.findFeedRefsNewer(currentId, since.timestamp(), since.id(),
+                PageRequest.of(0, MAX_NEW_POSTS + 1));
+        boolean hasMore = refs.size() > MAX_NEW_POSTS;
+        if (hasMore) {
+            refs = refs.subList(0, MAX_NEW_POSTS);
+        }
+
+        // refs tăng dần theo thời gian, trả về mới nhất trước
+        List<String> ids = new ArrayList<>(refs.size());
+        for (int i = refs.size() - 1; i >= 0; i--) {
+            ids.add(refs.get(i).id());
         }
-        return rs;
+        String newestCursor = null;
+        if (!refs.isEmpty()) {
+            PostRef newest = refs.get(refs.size() - 1);
+            newestCursor = new KeysetCursor(newest.createAt(), newest.id()).encode();
+        }
+        return NewPostsResponse.builder()
+                .count(ids.size())
+                .ids(ids)
+                .hasMore(hasMore)
+                .newestCursor(newestCursor)
+                .build();
     }
 
     public List<PostResponse> getPostsByUser(String currentId) {
         List<Post> post = repo.findByUser_Id(currentId);
-        List<PostResponse> rs = new ArrayList<>();
-        for (Post p : post) {
-            rs.add(postMapper.toPostResponse(p, currentId));
-        }
-        return rs;
+        return postMapper.toPostResponses(post, currentId);
     }
 
 
+    public PostResponse getPostDetail(String postId, String currentId) {
+        return repo.findDetailById(postId)
+                .map(post -> postMapper.toPostResponse(post, currentId))
+                .orElse(null);
+    }
+
+    @Transactional
     public Post insertPost(UpPostRequest request) {
-        Post post = postMapper.toPost(request);
-        return repo.save(post);
+        Post post = repo.save(postMapper.toPost(request));
+        // Fan-out vào timeline của follower sau khi commit
+        eventPublisher.publishEvent(new PostCreatedEvent(post.getId(), post.getUser().getId(), post.getCreateAt()));
+        return post;
     }
 
+    @Transactional
     public void deletePost(String postId) {
+        // Comment không còn cascade từ Post: xóa cả bài bằng bulk delete theo post_id
+        commentLikeRepository.deleteByPostId(postId);
+        commentRepository.detachByPostId(postId);
+        commentRepository.deleteByPostId(postId);
         repo.deleteById(postId);
+        eventPublisher.publishEvent(new PostDeletedEvent(postId));
     }
 
     public List<PostProfileResponse> getSavedPosts(String userId) {
-        List<SavedPostDetail> savedDetails = savedPostDetailRepository.findBySavedPost_User_Id(userId);
-
-        return savedDetails.stream()
-                .map(SavedPostDetail::getPost)
-                .map(post -> PostProfileResponse.builder()
-                        .id(post.getId())
-                        .content(post.getContent())
-                        .createdAt(post.getCreateAt())
-                        .likeCount(post.getLikes().size())
-                        .commentCount(post.getComments().size())
-                        .imageUrls(post.getPostImages())
-                        .userId(post.getUser().getId())
-                        .userName(post.getUser().getUserName())
-                        .avatarUrl(post.getUser().getProfileImage())
-                        .build())
-                .sorted(Comparator.comparing(PostProfileResponse::getCreatedAt).reversed())
-                .toList();
+        return postGridService.getSavedGrid(userId);
     }
 
 
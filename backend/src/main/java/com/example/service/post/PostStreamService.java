@@ -0,0 +1,97 @@
+package com.example.service.post;
+
+import com.example.dto.projection.PostRef;
+import com.example.dto.response.post.PostResponse;
+import com.example.entity.Post;
+import com.example.mapper.PostMapper;
+import com.example.repository.post.PostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ghi feed ra response theo từng chunk trong lúc đọc DB, thay vì dựng cả List rồi serialize một lần.
+ * Con trỏ đọc là keyset (createAt, id): mỗi chunk là một seek ngắn nên không giữ connection/result set
+ * mở suốt request (result set streaming của MySQL chặn mọi câu lệnh khác trên cùng connection).
+ * Heap mỗi request chỉ phụ thuộc kích thước chunk.
+ * Card được dựng thẳng từ chunk vừa đọc, không qua {@link PostCardCache}: một stream đi qua cả feed,
+ * phần lớn là bài cũ ít người xem, đưa chúng vào cache sẽ đẩy các card đang hot ra ngoài.
+ */
+@Service
+@RequiredArgsConstructor
+public class PostStreamService {
+    private static final int CHUNK_SIZE = 50;
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    public enum Format {
+        NDJSON, SSE
+    }
+
+    private final PostRepository postRepository;
+    private final PostMapper postMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public void streamFeed(String viewerId, Format format, OutputStream out) throws IOException {
+        Pageable chunk = PageRequest.of(0, CHUNK_SIZE);
+        List<PostRef> refs = postRepository.findFeedFirstPage(viewerId, chunk);
+        while (!refs.isEmpty()) {
+            List<PostCard> cards = loadCards(refs);
+            for (PostResponse post : postMapper.fromCards(cards, viewerId)) {
+                write(out, format, objectMapper.writeValueAsBytes(post));
+            }
+            // Đẩy chunk xuống client ngay, không chờ hết dữ liệu
+            out.flush();
+            // Bỏ các entity đã nạp (khi có open-in-view) để heap không tăng theo số chunk
+            entityManager.clear();
+
+            if (refs.size() < CHUNK_SIZE) {
+                break;
+            }
+            PostRef last = refs.get(refs.size() - 1);
+            refs = postRepository.findFeedPageAfter(viewerId, last.createAt(), last.id(), chunk);
+        }
+        if (format == Format.SSE) {
+            out.write("event: end\ndata: {}\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    // Card theo đúng thứ tự của chunk; ảnh và tác giả nạp theo fetch plan của feed
+    private List<PostCard> loadCards(List<PostRef> refs) {
+        Map<String, Post> posts = postRepository.findByIdIn(refs.stream().map(PostRef::id).toList()).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<PostCard> cards = new ArrayList<>(refs.size());
+        for (PostRef ref : refs) {
+            Post post = posts.get(ref.id());
+            if (post != null) {
+                cards.add(postMapper.toPostCard(post));
+            }
+        }
+        return cards;
+    }
+
+    private void write(OutputStream out, Format format, byte[] json) throws IOException {
+        if (format == Format.SSE) {
+            out.write("data: ".getBytes(StandardCharsets.UTF_8));
+            out.write(json);
+            out.write(NEWLINE);
+            out.write(NEWLINE);
+        } else {
+            out.write(json);
+            out.write(NEWLINE);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.service.realtime;
+
+import com.example.dto.response.post.PostLiveUpdate;
+import com.example.dto.response.user.CommentResponseDTO;
+import com.example.event.CommentAddedEvent;
+import com.example.event.PostLikeChangedEvent;
+import com.example.service.post.PostCard;
+import com.example.service.post.PostCardCache;
+import com.example.service.post.PostCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Đẩy comment mới và thay đổi số like xuống các client đang mở topic /topic/posts/{postId}.
+ * Thay đổi được gộp theo bài trong một cửa sổ ngắn, mỗi cửa sổ gửi tối đa một message cho mỗi topic.
+ * Chỉ buffer cho các bài đang có người subscribe.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostLiveBroadcaster {
+    public static final String TOPIC_PREFIX = "/topic/posts/";
+    // Quá giới hạn này chỉ gửi số lượng, client tự tải lại danh sách comment
+    private static final int MAX_COMMENTS_PER_UPDATE = 20;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final PostCardCache postCardCache;
+    private final PostCounterService postCounterService;
+
+    // postId -> số subscription đang mở
+    private final Map<String, Integer> subscribers = new ConcurrentHashMap<>();
+    // sessionId -> (subscriptionId -> postId), vì frame UNSUBSCRIBE không mang destination
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    /** Trả về postId nếu destination là topic của một bài, ngược lại null. */
+    public static String postIdOf(String destination) {
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            return null;
+        }
+        String postId = destination.substring(TOPIC_PREFIX.length());
+        return postId.isEmpty() || postId.contains("/") ? null : postId;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String postId = postIdOf(accessor.getDestination());
+        if (postId == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String previous = sessions.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), postId);
+        release(previous);
+        subscribers.merge(postId, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = accessor.getSessionId() == null ? null : sessions.get(accessor.getSessionId());
+        if (subscriptions != null && accessor.getSubscriptionId() != null) {
+            release(subscriptions.remove(accessor.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(String postId) {
+        if (postId != null) {
+            subscribers.computeIfPresent(postId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCommentAdded(CommentAddedEvent event) {
+        if (subscribers.containsKey(event.postId())) {
+            // Thay đổi nằm trong compute nên không lẫn với lúc flush lấy buffer ra
+            pending.compute(event.postId(), (id, buffer) -> {
+                Pending target = buffer == null ? new Pending() : buffer;
+                target.addComment(event.comment());
+                return target;
+            });
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLikeChanged(PostLikeChangedEvent event) {
+        if (subscribers.containsKey(event.postId())) {
+            pending.compute(event.postId(), (id, buffer) -> {
+                Pending target = buffer == null ? new Pending() : buffer;
+                target.likeDelta += event.delta();
+                return target;
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ws.post.coalesce-ms:250}")
+    public void flush() {
+        for (String postId : List.copyOf(pending.keySet())) {
+            Pending buffer = pending.remove(postId);
+            if (buffer == null || !subscribers.containsKey(postId)) {
+                continue;
+            }
+            PostCard card = postCardCache.getCard(postId);
+            if (card == null) {
+                continue; // bài đã bị xóa
+            }
+            PostLiveUpdate update = PostLiveUpdate.builder()
+                    .postId(postId)
+                    .comments(buffer.comments)
+                    .droppedComments(buffer.droppedComments)
+                    .likeDelta(buffer.likeDelta)
+                    .likeCount(Math.max(0, card.likeCount() + postCounterService.pendingLikes(postId)))
+                    .build();
+            try {
+                messagingTemplate.convertAndSend(TOPIC_PREFIX + postId, update);
+            } catch (MessagingException e) {
+                // Hàng đợi outbound đầy: bỏ cập nhật này, lần sau client vẫn nhận likeCount mới nhất
+                log.warn("Drop live update for post {}", postId, e);
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final List<CommentResponseDTO> comments = new ArrayList<>();
+        private int droppedComments;
+        private long likeDelta;
+
+        void addComment(CommentResponseDTO comment) {
+            if (comments.size() < MAX_COMMENTS_PER_UPDATE) {
+                comments.add(comment);
+            } else {
+                droppedComments++;
+            }
+        }
+    }
+}
@@ -47,9 +47,10 @@ public class SavedPostService {
             return Collections.emptyList();
         }
         List<SavedPostDetail> savedPostDetails = savedPostDetailRepository.findBySavedPost(savedPost);
-        return savedPostDetails.stream()
-                .map(savedPostDetail -> postMapper.toPostResponse(savedPostDetail.getPost(), userId))
+        List<Post> posts = savedPostDetails.stream()
+                .map(SavedPostDetail::getPost)
                 .toList();
+        return postMapper.toPostResponses(posts, userId);
 
     }
 
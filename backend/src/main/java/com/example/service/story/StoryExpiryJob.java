@@ -0,0 +1,68 @@
+package com.example.service.story;
+
+import com.example.dto.projection.ExpiredStory;
+import com.example.repository.story.StoryRepository;
+import com.example.repository.story.StoryViewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Dọn story hết hạn gần đúng thời điểm expiresAt thay vì một câu DELETE lớn mỗi giờ.
+ * Mỗi lượt quét index (expires_at, id) từ đầu tới thời điểm hiện tại nên chỉ chạm các story vừa hết hạn;
+ * story_views và stories được xóa theo từng chunk, mỗi chunk một transaction ngắn.
+ * StoryViewBuffer không ghi lượt xem cho story đã hết hạn nên không có dòng mới chen vào sau khi xóa.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoryExpiryJob {
+    private final StoryRepository storyRepository;
+    private final StoryViewRepository storyViewRepository;
+    private final StoryMediaCleaner storyMediaCleaner;
+
+    @Value("${story.expiry.batch-size:200}")
+    private int batchSize;
+
+    @Value("${story.expiry.view-chunk-size:1000}")
+    private int viewChunkSize;
+
+    @Scheduled(fixedDelayString = "${story.expiry.poll-interval-ms:10000}")
+    public void expireDue() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        List<ExpiredStory> batch;
+        do {
+            batch = storyRepository.findExpired(now, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<String> ids = batch.stream().map(ExpiredStory::id).toList();
+            deleteViews(ids);
+            storyRepository.deleteByIdIn(ids);
+            // StoryTrayCache tự bỏ tác giả khi story mới nhất hết hạn, không cần event
+            storyMediaCleaner.deleteMedia(batch.stream().map(ExpiredStory::mediaUrl).toList());
+            total += batch.size();
+        } while (batch.size() == batchSize);
+
+        if (total > 0) {
+            log.info("Expired {} stories", total);
+        }
+    }
+
+    private void deleteViews(List<String> storyIds) {
+        List<String> viewIds;
+        do {
+            viewIds = storyViewRepository.findIdsByStoryIds(storyIds, PageRequest.of(0, viewChunkSize));
+            if (!viewIds.isEmpty()) {
+                storyViewRepository.deleteByIdIn(viewIds);
+            }
+        } while (viewIds.size() == viewChunkSize);
+    }
+}
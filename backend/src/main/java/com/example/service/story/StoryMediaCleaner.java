@@ -0,0 +1,88 @@
+package com.example.service.story;
+
+import com.example.event.StoryDeletedEvent;
+import com.example.service.FileService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Xóa media của story trên Cloudinary ngoài luồng xóa story.
+ * Story đã bị xóa khỏi DB nên lỗi ở đây không làm hỏng request hay job: URL xóa lỗi được đưa vào hàng đợi
+ * thử lại với backoff tăng gấp đôi, tối đa {@code story.media.delete-max-attempts} lần rồi ghi log bỏ qua.
+ * Hàng đợi chỉ nằm trong bộ nhớ, nên URL đang chờ thử lại sẽ mất nếu tiến trình restart.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoryMediaCleaner {
+    private final FileService fileService;
+    private final Queue<Retry> retries = new ConcurrentLinkedQueue<>();
+
+    @Value("${story.media.delete-max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${story.media.delete-backoff-ms:60000}")
+    private long backoffMs;
+
+    @Async
+    public void deleteMedia(List<String> mediaUrls) {
+        mediaUrls.forEach(url -> delete(url, 1));
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStoryDeleted(StoryDeletedEvent event) {
+        delete(event.mediaUrl(), 1);
+    }
+
+    @Scheduled(fixedDelayString = "${story.media.delete-retry-interval-ms:30000}")
+    public void retryFailed() {
+        long now = System.currentTimeMillis();
+        List<Retry> due = new ArrayList<>();
+        for (int i = retries.size(); i > 0; i--) {
+            Retry retry = retries.poll();
+            if (retry == null) {
+                break;
+            }
+            if (retry.notBefore() <= now) {
+                due.add(retry);
+            } else {
+                retries.add(retry);
+            }
+        }
+        due.forEach(retry -> delete(retry.mediaUrl(), retry.attempt()));
+    }
+
+    private void delete(String mediaUrl, int attempt) {
+        // URL không phải của Cloudinary thì không có gì để xóa
+        if (fileService.extractPublicIdFromUrl(mediaUrl) == null) {
+            return;
+        }
+        try {
+            fileService.deleteImageInCloudinary(mediaUrl);
+        } catch (IOException | RuntimeException e) {
+            if (attempt >= maxAttempts) {
+                log.error("Delete story media {} failed after {} attempts, giving up", mediaUrl, attempt, e);
+                return;
+            }
+            long delay = backoffMs << (attempt - 1);
+            retries.add(new Retry(mediaUrl, attempt + 1, System.currentTimeMillis() + delay));
+            log.warn("Delete story media {} failed (attempt {}), retrying in {} ms", mediaUrl, attempt, delay, e);
+        }
+    }
+
+    private record Retry(String mediaUrl, int attempt, long notBefore) {
+    }
+}
@@ -1,32 +1,51 @@
 package com.example.service.story;
 
+import com.example.dto.projection.StoryTrayEntry;
+import com.example.dto.projection.StoryViewerRow;
 import com.example.dto.request.StoryRequest;
 import com.example.dto.response.story.StoryResponse;
+import com.example.dto.response.story.StoryTrayItem;
 import com.example.dto.response.story.StoryViewResponse;
+import com.example.dto.response.story.StoryViewersResponse;
 import com.example.entity.Story;
-import com.example.entity.StoryView;
 import com.example.entity.User;
+import com.example.event.StoryCreatedEvent;
+import com.example.event.StoryDeletedEvent;
 import com.example.mapper.StoryMapper;
 import com.example.repository.story.StoryRepository;
 import com.example.repository.story.StoryViewRepository;
 import com.example.repository.user.UserRepository;
+import com.example.utils.KeysetCursor;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class StoryService {
+    public static final int DEFAULT_VIEWERS_PAGE_SIZE = 20;
+    public static final int MAX_VIEWERS_PAGE_SIZE = 50;
+
     private final StoryRepository storyRepository;
     private final StoryViewRepository storyViewRepository;
     private final UserRepository userRepository;
     private final StoryMapper storyMapper;
+    private final StoryViewBuffer storyViewBuffer;
+    private final StoryTrayCache storyTrayCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public StoryResponse createStory(StoryRequest request) {
@@ -39,73 +58,128 @@ public class StoryService {
         story.setMediaType(request.getMediaType());
 
         Story savedStory = storyRepository.save(story);
+        eventPublisher.publishEvent(new StoryCreatedEvent(savedStory.getId(), user.getId(),
+                savedStory.getCreatedAt(), savedStory.getExpiresAt()));
         return storyMapper.toStoryResponse(savedStory, 0, false);
     }
 
     public List<StoryResponse> getMyStories(String userId) {
         List<Story> stories = storyRepository.findActiveStoriesByUserId(userId, LocalDateTime.now());
-        return stories.stream()
-                .map(story -> {
-                    long viewCount = storyViewRepository.countByStoryId(story.getId());
-                    boolean viewed = storyViewRepository.findByStoryIdAndViewerId(story.getId(), userId).isPresent();
-                    return storyMapper.toStoryResponse(story, viewCount, viewed);
-                })
-                .collect(Collectors.toList());
+        return toStoryResponses(stories, userId);
     }
 
     public List<StoryResponse> getStoriesFromFollowing(String currentUserId) {
-        List<Story> stories = storyRepository.findActiveStoriesFromFollowing(currentUserId, LocalDateTime.now());
-        return stories.stream()
-                .map(story -> {
-                    long viewCount = storyViewRepository.countByStoryId(story.getId());
-                    boolean viewed = storyViewRepository.findByStoryIdAndViewerId(story.getId(), currentUserId).isPresent();
-                    return storyMapper.toStoryResponse(story, viewCount, viewed);
-                })
-                .collect(Collectors.toList());
+        List<String> authorIds = storyTrayCache.activeAuthors(currentUserId).stream()
+                .map(StoryTrayEntry::authorId)
+                .filter(id -> !id.equals(currentUserId))
+                .toList();
+        if (authorIds.isEmpty()) {
+            return List.of();
+        }
+        List<Story> stories = new ArrayList<>(storyRepository.findActiveStoriesByUserIds(authorIds, LocalDateTime.now()));
+        stories.sort(Comparator.comparing(Story::getCreatedAt).reversed());
+        return toStoryResponses(stories, currentUserId);
     }
 
     public List<StoryResponse> getAllActiveStories(String currentUserId) {
         List<Story> stories = storyRepository.findAllActiveStories(LocalDateTime.now());
-        return stories.stream()
-                .map(story -> {
-                    long viewCount = storyViewRepository.countByStoryId(story.getId());
-                    boolean viewed = storyViewRepository.findByStoryIdAndViewerId(story.getId(), currentUserId).isPresent();
-                    return storyMapper.toStoryResponse(story, viewCount, viewed);
-                })
-                .collect(Collectors.toList());
+        return toStoryResponses(stories, currentUserId);
     }
 
-    @Transactional
-    public void viewStory(String storyId, String viewerId) {
-        Story story = storyRepository.findById(storyId)
-                .orElseThrow(() -> new EntityNotFoundException("Story not found with id: " + storyId));
-
-        // Kiểm tra xem đã xem chưa
-        if (storyViewRepository.findByStoryIdAndViewerId(storyId, viewerId).isPresent()) {
-            return; // Đã xem rồi, không cần lưu lại
+    /**
+     * Khay story gom theo tác giả: story của chính viewer đứng đầu, sau đó các tác giả còn story chưa xem,
+     * cuối cùng là các tác giả đã xem hết; trong mỗi nhóm tác giả có story mới hơn đứng trước.
+     * Tác giả có story active lấy từ {@link StoryTrayCache}; khay rỗng không chạm DB, còn lại là 2 query:
+     * story của đúng các tác giả đó (kèm tác giả, view_count đếm sẵn) và tập story viewer đã xem.
+     */
+    public List<StoryTrayItem> getStoryTray(String viewerId) {
+        List<String> authorIds = storyTrayCache.activeAuthors(viewerId).stream()
+                .map(StoryTrayEntry::authorId)
+                .toList();
+        if (authorIds.isEmpty()) {
+            return List.of();
         }
-
-        // Không cho phép xem story của chính mình
-        if (story.getUser().getId().equals(viewerId)) {
-            return;
+        List<Story> stories = storyRepository.findActiveStoriesByUserIds(authorIds, LocalDateTime.now());
+        List<StoryResponse> responses = toStoryResponses(stories, viewerId);
+
+        // stories đã sắp theo createdAt tăng dần nên story trong mỗi nhóm giữ đúng thứ tự phát
+        Map<String, StoryTrayItem> byAuthor = new LinkedHashMap<>();
+        for (StoryResponse story : responses) {
+            StoryTrayItem item = byAuthor.computeIfAbsent(story.getUser().getId(), id -> StoryTrayItem.builder()
+                    .user(story.getUser())
+                    .stories(new ArrayList<>())
+                    .build());
+            item.getStories().add(story);
+            item.setLatestAt(story.getCreatedAt());
+            if (!story.isViewed() && !viewerId.equals(story.getUser().getId())) {
+                item.setHasUnseen(true);
+            }
         }
 
-        User viewer = userRepository.findById(viewerId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + viewerId));
+        return byAuthor.values().stream()
+                .sorted(Comparator.comparing((StoryTrayItem item) -> !viewerId.equals(item.getUser().getId()))
+                        .thenComparing(item -> !item.isHasUnseen())
+                        .thenComparing(StoryTrayItem::getLatestAt, Comparator.reverseOrder()))
+                .toList();
+    }
+
+    // Trạng thái đã xem cho cả danh sách bằng 1 query thay vì 2 query mỗi story
+    private List<StoryResponse> toStoryResponses(List<Story> stories, String viewerId) {
+        if (stories.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = stories.stream().map(Story::getId).toList();
+        Set<String> viewed = viewerId == null
+                ? Set.of()
+                : new HashSet<>(storyViewRepository.findViewedStoryIds(viewerId, ids));
+        // view_count là cột đếm sẵn; lượt xem vừa nhận nhưng chưa flush vẫn tính là đã xem
+        return stories.stream()
+                .map(story -> storyMapper.toStoryResponse(story, story.getViewCount(),
+                        viewed.contains(story.getId()) || storyViewBuffer.hasRecorded(story.getId(), viewerId)))
+                .collect(Collectors.toList());
+    }
 
-        StoryView storyView = new StoryView();
-        storyView.setStory(story);
-        storyView.setViewer(viewer);
-        storyViewRepository.save(storyView);
+    // Trả về ngay; kiểm tra story / viewer, lọc trùng và ghi DB diễn ra theo lô trong StoryViewBuffer
+    public void viewStory(String storyId, String viewerId) {
+        storyViewBuffer.record(storyId, viewerId);
     }
 
     public List<StoryViewResponse> getStoryViews(String storyId) {
-        List<StoryView> views = storyViewRepository.findByStoryId(storyId);
-        return views.stream()
+        return storyViewRepository.findViewerRows(storyId).stream()
                 .map(storyMapper::toStoryViewResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Danh sách người xem story theo trang, người xem gần nhất trước.
+     * Mỗi trang một query join lấy đúng các cột hiển thị; tổng lượt xem lấy từ cột view_count đếm sẵn.
+     */
+    public StoryViewersResponse getStoryViewers(String storyId, String cursor, int size) {
+        long viewCount = storyRepository.findViewCount(storyId)
+                .orElseThrow(() -> new EntityNotFoundException("Story not found with id: " + storyId));
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int limit = Math.min(Math.max(size, 1), MAX_VIEWERS_PAGE_SIZE);
+        // Lấy dư 1 phần tử để biết còn trang sau hay không
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<StoryViewerRow> rows = after == null
+                ? storyViewRepository.findViewersFirstPage(storyId, page)
+                : storyViewRepository.findViewersAfter(storyId, after.timestamp(), after.id(), page);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            StoryViewerRow last = rows.get(rows.size() - 1);
+            nextCursor = new KeysetCursor(last.viewedAt(), last.viewId()).encode();
+        }
+        return StoryViewersResponse.builder()
+                .items(rows.stream().map(storyMapper::toStoryViewResponse).toList())
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .viewCount(viewCount)
+                .build();
+    }
+
     @Transactional
     public void deleteStory(String storyId, String userId) {
         Story story = storyRepository.findById(storyId)
@@ -116,14 +190,9 @@ public class StoryService {
             throw new IllegalStateException("You can only delete your own stories");
         }
 
+        storyViewRepository.deleteByStoryId(storyId);
         storyRepository.delete(story);
-    }
-
-    // Tự động xóa stories đã hết hạn (chạy mỗi giờ)
-    @Scheduled(fixedRate = 3600000) // 1 giờ = 3600000 milliseconds
-    @Transactional
-    public void deleteExpiredStories() {
-        storyRepository.deleteExpiredStories(LocalDateTime.now());
+        // Media trên Cloudinary được StoryMediaCleaner xóa sau khi commit
+        eventPublisher.publishEvent(new StoryDeletedEvent(storyId, userId, story.getMediaUrl()));
     }
 }
-
@@ -0,0 +1,186 @@
+package com.example.service.story;
+
+import com.example.dto.projection.StoryTrayEntry;
+import com.example.event.FollowChangedEvent;
+import com.example.event.StoryCreatedEvent;
+import com.example.event.StoryDeletedEvent;
+import com.example.repository.follow.FollowRepository;
+import com.example.repository.story.StoryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dữ liệu cho khay story mà không phải quét bảng stories với subquery follow mỗi lần mở app:
+ * <ul>
+ *     <li>chỉ mục đầy đủ các tác giả đang có story active, mỗi entry tự hết hạn đúng lúc story mới nhất
+ *     của tác giả hết hạn (expiry theo từng entry của Caffeine, không có job quét toàn bộ);</li>
+ *     <li>tập following của từng viewer, cập nhật tại chỗ khi follow / unfollow.</li>
+ * </ul>
+ * Khay của một viewer là giao của hai phần trên, tính trong bộ nhớ.
+ * <p>
+ * Event chỉ tới được node đã xử lý request, nên chỉ mục tác giả được nạp lại định kỳ từ DB để thấy story
+ * tạo / xóa trên các node khác và sửa các event bị mất; độ trễ tối đa là {@code story.tray.reload-interval-ms}.
+ */
+@Slf4j
+@Component
+public class StoryTrayCache {
+    private final StoryRepository storyRepository;
+    private final FollowRepository followRepository;
+    private final Cache<String, StoryTrayEntry> authors;
+    private final Cache<String, Set<String>> following;
+    private volatile boolean loaded;
+
+    public StoryTrayCache(StoryRepository storyRepository,
+                          FollowRepository followRepository,
+                          @Value("${story.tray.following-max-viewers:100000}") long followingMaxViewers,
+                          @Value("${story.tray.following-expire-minutes:30}") long followingExpireMinutes) {
+        this.storyRepository = storyRepository;
+        this.followRepository = followRepository;
+        this.authors = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, StoryTrayEntry>() {
+                    @Override
+                    public long expireAfterCreate(String authorId, StoryTrayEntry entry, long currentTime) {
+                        return nanosUntil(entry.expiresAt());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String authorId, StoryTrayEntry entry, long currentTime, long currentDuration) {
+                        return nanosUntil(entry.expiresAt());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String authorId, StoryTrayEntry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // Dọn entry hết hạn chủ động thay vì chờ lần truy cập kế tiếp
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+        this.following = Caffeine.newBuilder()
+                .maximumSize(followingMaxViewers)
+                .expireAfterAccess(Duration.ofMinutes(followingExpireMinutes))
+                .build();
+    }
+
+    /** Tác giả đang có story active trong số viewer và những người viewer follow, story mới nhất trước. */
+    public List<StoryTrayEntry> activeAuthors(String viewerId) {
+        ensureLoaded();
+        Set<String> followingIds = following.get(viewerId, this::loadFollowing);
+        List<StoryTrayEntry> rs = new ArrayList<>();
+        for (String authorId : followingIds) {
+            StoryTrayEntry entry = authors.getIfPresent(authorId);
+            if (entry != null) {
+                rs.add(entry);
+            }
+        }
+        StoryTrayEntry own = authors.getIfPresent(viewerId);
+        if (own != null) {
+            rs.add(own);
+        }
+        rs.sort(Comparator.comparing(StoryTrayEntry::latestAt).reversed());
+        return rs;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStoryCreated(StoryCreatedEvent event) {
+        // Story mới nhất luôn hết hạn muộn nhất nên entry mới thay entry cũ
+        authors.asMap().merge(event.authorId(),
+                new StoryTrayEntry(event.authorId(), event.createdAt(), event.expiresAt()),
+                (current, created) -> created.latestAt().isAfter(current.latestAt()) ? created : current);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStoryDeleted(StoryDeletedEvent event) {
+        // Có thể vừa xóa story mới nhất: đọc lại story active mới nhất của tác giả
+        reloadAuthor(event.authorId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFollowChanged(FollowChangedEvent event) {
+        Set<String> updated = following.asMap().computeIfPresent(event.followerId(), (id, followingIds) -> {
+            if (event.followed()) {
+                followingIds.add(event.userId());
+            } else {
+                followingIds.remove(event.userId());
+            }
+            return followingIds;
+        });
+        if (updated == null) {
+            // Chưa có hoặc đang nạp (có thể từ snapshot trước khi follow được commit): invalidate chờ lần nạp
+            // đó xong rồi bỏ kết quả, lần đọc sau nạp lại từ DB
+            following.invalidate(event.followerId());
+        }
+    }
+
+    private void reloadAuthor(String authorId) {
+        List<StoryTrayEntry> entries = storyRepository.findTrayEntries(authorId, LocalDateTime.now());
+        if (entries.isEmpty()) {
+            authors.invalidate(authorId);
+        } else {
+            authors.put(authorId, entries.get(0));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        reload();
+    }
+
+    // Story chỉ sống 24 giờ nên tập tác giả active nhỏ: nạp lại toàn bộ bằng một query GROUP BY
+    @Scheduled(fixedDelayString = "${story.tray.reload-interval-ms:60000}")
+    public synchronized void reload() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<StoryTrayEntry> entries = storyRepository.findAllTrayEntries(startedAt);
+        Map<String, StoryTrayEntry> fresh = new HashMap<>();
+        for (StoryTrayEntry entry : entries) {
+            fresh.put(entry.authorId(), entry);
+        }
+        for (String authorId : List.copyOf(authors.asMap().keySet())) {
+            if (!fresh.containsKey(authorId)) {
+                // Story đã bị xóa trên node khác, trừ khi entry do event đến trong lúc nạp đặt vào
+                authors.asMap().computeIfPresent(authorId,
+                        (id, current) -> current.latestAt().isBefore(startedAt) ? null : current);
+            }
+        }
+        for (StoryTrayEntry entry : entries) {
+            // DB là nguồn đúng; chỉ giữ entry mới hơn nếu nó được tạo sau khi bắt đầu nạp
+            authors.asMap().merge(entry.authorId(), entry, (current, loadedEntry) ->
+                    current.latestAt().isAfter(loadedEntry.latestAt()) && !current.latestAt().isBefore(startedAt)
+                            ? current : loadedEntry);
+        }
+        if (!loaded) {
+            log.info("Loaded story tray index with {} active authors", entries.size());
+        }
+        loaded = true;
+    }
+
+    private Set<String> loadFollowing(String viewerId) {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ids.addAll(followRepository.findFollowingIdsByFollowerId(viewerId));
+        return ids;
+    }
+
+    private static long nanosUntil(LocalDateTime expiresAt) {
+        return Math.max(0, Duration.between(LocalDateTime.now(), expiresAt).toNanos());
+    }
+}
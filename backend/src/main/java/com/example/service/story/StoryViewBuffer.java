@@ -0,0 +1,198 @@
+package com.example.service.story;
+
+import com.example.dto.projection.StoryAuthor;
+import com.example.event.EngagementEvent;
+import com.example.repository.story.StoryRepository;
+import com.example.utils.BatchUpdates;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Ghi nhận lượt xem story: trả về ngay, lọc trùng (story, viewer) trong bộ nhớ và ghi xuống DB theo lô.
+ * Mỗi lần flush là batch INSERT IGNORE ... SELECT: story phải còn tồn tại, còn hạn và không phải của
+ * chính viewer; trùng unique key hoặc viewer không tồn tại thì dòng bị bỏ qua thay vì ném exception.
+ * stories.view_count được cộng đúng số dòng thực sự được thêm; nếu UPDATE lỗi, phần chưa cộng được
+ * giữ lại và cộng ở lần flush sau. viewed_at là thời điểm nhận lượt xem, không phải thời điểm flush.
+ */
+@Slf4j
+@Service
+public class StoryViewBuffer {
+    private static final String INSERT_SQL = "INSERT IGNORE INTO story_views (id, story_id, viewer_id, viewed_at) " +
+            "SELECT ?, s.id, ?, ? FROM stories s WHERE s.id = ? AND s.user_id <> ? AND s.expires_at > ?";
+    private static final String COUNT_SQL = "UPDATE stories SET view_count = view_count + ? WHERE id = ?";
+    private static final String RECONCILE_SQL = "UPDATE stories s SET view_count = " +
+            "(SELECT COUNT(*) FROM story_views v WHERE v.story_id = s.id) WHERE s.expires_at > ?";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StoryRepository storyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    // Các cặp đã nhận trong vòng đời của một story: xem lại / client retry bị bỏ ngay, không tới DB
+    private final Cache<Key, Boolean> accepted;
+    private final Queue<View> pending = new ConcurrentLinkedQueue<>();
+    // Phần view_count đã có dòng story_views nhưng chưa cộng được (UPDATE lỗi); chỉ dùng trong flush()
+    private final Map<String, Long> pendingCounts = new LinkedHashMap<>();
+
+    public StoryViewBuffer(JdbcTemplate jdbcTemplate,
+                           StoryRepository storyRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${story.view.dedup-max-size:1000000}") long dedupMaxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.storyRepository = storyRepository;
+        this.eventPublisher = eventPublisher;
+        this.accepted = Caffeine.newBuilder()
+                .maximumSize(dedupMaxSize)
+                .expireAfterWrite(Duration.ofHours(24))
+                .build();
+    }
+
+    /** @return true nếu đây là lần đầu cặp (story, viewer) được ghi nhận trong bộ nhớ */
+    public boolean record(String storyId, String viewerId) {
+        Key key = new Key(storyId, viewerId);
+        if (accepted.asMap().putIfAbsent(key, Boolean.TRUE) != null) {
+            return false;
+        }
+        pending.add(new View(key, Timestamp.valueOf(LocalDateTime.now())));
+        return true;
+    }
+
+    // Cho phần đọc: lượt xem đã nhận nhưng có thể chưa được flush
+    public boolean hasRecorded(String storyId, String viewerId) {
+        return accepted.getIfPresent(new Key(storyId, viewerId)) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${story.view.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<View> drained = new ArrayList<>();
+        for (View view = pending.poll(); view != null; view = pending.poll()) {
+            drained.add(view);
+        }
+        if (drained.isEmpty() && pendingCounts.isEmpty()) {
+            return;
+        }
+
+        // Điều kiện còn hạn xét tại lúc flush: StoryExpiryJob có thể đã xóa story_views của story vừa hết hạn
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<String, Long> inserted = new HashMap<>();
+        List<Key> insertedKeys = new ArrayList<>();
+        for (int from = 0; from < drained.size(); from += BATCH_SIZE) {
+            List<View> chunk = drained.subList(from, Math.min(from + BATCH_SIZE, drained.size()));
+            List<Object[]> args = chunk.stream()
+                    .map(v -> new Object[]{UUID.randomUUID().toString(), v.key().viewerId(), v.viewedAt(),
+                            v.key().storyId(), v.key().viewerId(), now})
+                    .toList();
+            int[] affected;
+            boolean failed = false;
+            try {
+                affected = jdbcTemplate.batchUpdate(INSERT_SQL, args);
+            } catch (DataAccessException e) {
+                // Chunk lỗi có thể đã ghi được một phần: dòng đã chạy được tính như bình thường,
+                // chỉ dòng lỗi / chưa chạy và các chunk sau được đưa lại vào hàng đợi
+                affected = BatchUpdates.updateCounts(e);
+                failed = true;
+                List<View> requeued = new ArrayList<>(drained.subList(from + chunk.size(), drained.size()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (!BatchUpdates.executed(affected, i)) {
+                        requeued.add(chunk.get(i));
+                    }
+                }
+                pending.addAll(requeued);
+                log.warn("Flush story views failed, {} views re-queued", requeued.size(), e);
+            }
+            for (int i = 0; i < Math.min(affected.length, chunk.size()); i++) {
+                Key key = chunk.get(i).key();
+                if (affected[i] > 0) {
+                    inserted.merge(key.storyId(), 1L, Long::sum);
+                    insertedKeys.add(key);
+                } else if (affected[i] == 0) {
+                    // Bị điều kiện của INSERT loại (story đã hết hạn / không tồn tại, viewer là tác giả...):
+                    // bỏ khỏi accepted để hasRecorded không báo một lượt xem không có trong DB
+                    accepted.invalidate(key);
+                }
+            }
+            if (failed) {
+                break;
+            }
+        }
+        inserted.forEach((storyId, count) -> pendingCounts.merge(storyId, count, Long::sum));
+        flushCounts();
+        if (inserted.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> authors = new HashMap<>();
+        for (StoryAuthor author : storyRepository.findAuthors(inserted.keySet())) {
+            authors.put(author.storyId(), author.authorId());
+        }
+        for (Key key : insertedKeys) {
+            String authorId = authors.get(key.storyId());
+            if (authorId != null) {
+                eventPublisher.publishEvent(new EngagementEvent(key.viewerId(), authorId, EngagementEvent.Type.STORY_VIEW));
+            }
+        }
+    }
+
+    // Các dòng story_views đã commit nên không thể rollback: UPDATE lỗi thì giữ lại phần chưa cộng cho lần flush sau
+    private void flushCounts() {
+        if (pendingCounts.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Long>> counts = new ArrayList<>(pendingCounts.entrySet());
+        try {
+            jdbcTemplate.batchUpdate(COUNT_SQL, counts.stream()
+                    .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                    .toList());
+            pendingCounts.clear();
+        } catch (DataAccessException e) {
+            int[] affected = BatchUpdates.updateCounts(e);
+            for (int i = 0; i < counts.size(); i++) {
+                if (BatchUpdates.executed(affected, i)) {
+                    pendingCounts.remove(counts.get(i).getKey());
+                }
+            }
+            log.warn("Update story view counts failed, {} stories kept for the next flush", pendingCounts.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // view_count của story đang active có từ trước khi thêm cột / lệch do flush lỗi; story cũ hết hạn sau 24h
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileActiveCounts() {
+        int updated = jdbcTemplate.update(RECONCILE_SQL, Timestamp.valueOf(LocalDateTime.now()));
+        log.info("Reconciled view_count of {} active stories", updated);
+    }
+
+    private record Key(String storyId, String viewerId) {
+    }
+
+    private record View(Key key, Timestamp viewedAt) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.service.user;
+
+import com.example.repository.user.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache các user id đã xác nhận tồn tại, để các thao tác tần suất cao (like...) không phải
+ * query bảng users mỗi lần. Chỉ cache kết quả "có"; app không xóa user nên không cần invalidate.
+ */
+@Component
+public class UserExistenceCache {
+    private final UserRepository userRepository;
+    private final Cache<String, Boolean> known;
+
+    public UserExistenceCache(UserRepository userRepository,
+                              @Value("${user.existence-cache.max-size:100000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.known = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    public boolean exists(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (known.getIfPresent(userId) != null) {
+            return true;
+        }
+        boolean exists = userRepository.existsById(userId);
+        if (exists) {
+            known.put(userId, Boolean.TRUE);
+        }
+        return exists;
+    }
+}
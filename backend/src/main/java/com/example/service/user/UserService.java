@@ -10,12 +10,13 @@ import com.example.dto.response.user.UserResponse;
 import com.example.dto.response.user.UserSearchResponse;
 import com.example.entity.Follow;
 import com.example.entity.User;
+import com.example.event.FollowChangedEvent;
 import com.example.mapper.UserMapper;
 import com.example.repository.follow.FollowRepository;
-import com.example.repository.post.PostRepository;
 import com.example.repository.user.UserRepository;
 import com.example.service.FileService;
 import com.example.service.jwt.JwtService;
+import com.example.service.post.PostGridService;
 import com.example.service.story.StoryService;
 import com.example.utils.JwtUtil;
 import jakarta.persistence.EntityNotFoundException;
@@ -23,6 +24,7 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -34,7 +36,6 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -47,10 +48,11 @@ public class UserService {
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
     private final OtpService otpService;
-    private final PostRepository postRepository;
+    private final PostGridService postGridService;
     private final FollowRepository followRepository;
     private final FileService fileService;
     private final StoryService storyService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthResponse login(String email, String password, HttpServletResponse response) {
         Authentication authenticationRequest = UsernamePasswordAuthenticationToken.unauthenticated(email, password);
@@ -127,10 +129,7 @@ public class UserService {
                 .map(mapper::toUserResponse)
                 .collect(Collectors.toList());
 
-        List<PostProfileResponse> posts = postRepository.findByUser_Id(profileUserId).stream()
-                .map(mapper::toPostResponse)
-                .sorted(Comparator.comparing(PostProfileResponse::getCreatedAt).reversed())
-                .collect(Collectors.toList());
+        List<PostProfileResponse> posts = postGridService.getUserGrid(profileUserId);
 
         return UserProfileResponse.builder()
                 .userId(profileUser.getId())
@@ -198,11 +197,13 @@ public class UserService {
         follow.setUser(target);
         follow.setFollower(follower);
         followRepository.save(follow);
+        eventPublisher.publishEvent(new FollowChangedEvent(targetUserId, currentUserId, true));
     }
 
     @Transactional
     public void unfollow(String currentUserId, String targetUserId) {
         followRepository.deleteByUserIdAndFollowerId(targetUserId, currentUserId);
+        eventPublisher.publishEvent(new FollowChangedEvent(targetUserId, currentUserId, false));
     }
 
     @Transactional
@@ -222,10 +223,7 @@ public class UserService {
     }
 
     public List<PostProfileResponse> getUserPosts(String userId) {
-        return postRepository.findByUser_Id(userId).stream()
-                .map(mapper::toPostResponse)
-                .sorted(Comparator.comparing(PostProfileResponse::getCreatedAt).reversed())
-                .collect(Collectors.toList());
+        return postGridService.getUserGrid(userId);
     }
 
     public String getIdByEmail(String email) {
@@ -269,10 +267,7 @@ public class UserService {
         long followersCount = followRepository.countByUserId(userId);
         long followingCount = followRepository.countByFollowerId(userId);
 
-        List<PostProfileResponse> posts = postRepository.findByUser_Id(userId).stream()
-                .map(mapper::toPostResponse)
-                .sorted(Comparator.comparing(PostProfileResponse::getCreatedAt).reversed())
-                .collect(Collectors.toList());
+        List<PostProfileResponse> posts = postGridService.getUserGrid(userId);
 
         return mapper.toUserProfileResponse(user, isFollowing, followersCount, followingCount, posts);
     }
@@ -311,5 +306,6 @@ public class UserService {
 
         // XÓA quan hệ follow
         followRepository.deleteByUserIdAndFollowerId(currentUserId, followerId);
+        eventPublisher.publishEvent(new FollowChangedEvent(currentUserId, followerId, false));
     }
 }
@@ -0,0 +1,37 @@
+package com.example.utils;
+
+import org.springframework.dao.DataAccessException;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+
+/**
+ * Đọc kết quả từng dòng của một JDBC batch bị lỗi giữa chừng.
+ * Không có transaction bao ngoài nên các câu lệnh đã chạy thành công đã được commit;
+ * chỉ các dòng lỗi hoặc chưa được chạy mới cần ghi lại.
+ */
+public final class BatchUpdates {
+
+    private BatchUpdates() {
+    }
+
+    /**
+     * Số dòng bị ảnh hưởng của từng câu lệnh trong batch lỗi, theo {@link BatchUpdateException#getUpdateCounts()}.
+     * Mảng có thể ngắn hơn batch nếu driver dừng ở lỗi đầu tiên; trả về mảng rỗng khi không xác định được.
+     */
+    public static int[] updateCounts(DataAccessException e) {
+        Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof BatchUpdateException batch && batch.getUpdateCounts() != null) {
+                return batch.getUpdateCounts();
+            }
+            cause = cause.getCause();
+        }
+        return new int[0];
+    }
+
+    /** true nếu câu lệnh thứ {@code index} chắc chắn đã chạy xong. */
+    public static boolean executed(int[] updateCounts, int index) {
+        return index < updateCounts.length && updateCounts[index] != Statement.EXECUTE_FAILED;
+    }
+}
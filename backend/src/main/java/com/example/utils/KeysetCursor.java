@@ -0,0 +1,40 @@
+package com.example.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor cho phân trang keyset theo cặp (timestamp, id).
+ * Client chỉ nhận chuỗi base64 (opaque) và gửi lại nguyên vẹn cho trang tiếp theo.
+ */
+public record KeysetCursor(LocalDateTime timestamp, String id) {
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Trả về null nếu token rỗng (trang đầu tiên).
+     *
+     * @throws IllegalArgumentException nếu token không đúng định dạng
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR);
+            if (idx <= 0 || idx == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, idx)), raw.substring(idx + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor cho phân trang keyset theo cặp (score, id), dùng cho các danh sách sắp theo điểm giảm dần.
+ * Giống {@link KeysetCursor}, client chỉ thấy chuỗi base64.
+ */
+public record ScoreCursor(double score, String id) {
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        // Double.toString giữ đủ chữ số để parse lại đúng giá trị đã lưu
+        String raw = Double.toString(score) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Trả về null nếu token rỗng (trang đầu tiên).
+     *
+     * @throws IllegalArgumentException nếu token không đúng định dạng
+     */
+    public static ScoreCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int idx = raw.indexOf(SEPARATOR);
+        if (idx <= 0 || idx == raw.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        // NumberFormatException là IllegalArgumentException
+        return new ScoreCursor(Double.parseDouble(raw.substring(0, idx)), raw.substring(idx + 1));
+    }
+}
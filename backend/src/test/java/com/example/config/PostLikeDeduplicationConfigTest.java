@@ -0,0 +1,42 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostLikeDeduplicationConfigTest {
+    private final EmbeddedDatabase db = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(db);
+
+    @AfterEach
+    void tearDown() {
+        db.shutdown();
+    }
+
+    @Test
+    void keepsOneRowPerUserAndPost() throws Exception {
+        jdbcTemplate.execute("CREATE TABLE post_like (id VARCHAR(36) PRIMARY KEY, user_id VARCHAR(36), post_id VARCHAR(36))");
+        jdbcTemplate.update("INSERT INTO post_like VALUES ('1', 'u1', 'p1'), ('2', 'u1', 'p1'), ('3', 'u1', 'p1'), " +
+                "('4', 'u2', 'p1'), ('5', 'u1', 'p2')");
+
+        new PostLikeDeduplicationConfig().postLikeDeduplication(db).afterPropertiesSet();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM post_like ORDER BY id", String.class))
+                .isEqualTo(List.of("1", "4", "5"));
+    }
+
+    @Test
+    void missingTableIsSkipped() throws Exception {
+        new PostLikeDeduplicationConfig().postLikeDeduplication(db).afterPropertiesSet();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.repository.comment;
+
+import com.example.dto.projection.CommentRankRef;
+import com.example.dto.projection.CommentRow;
+import com.example.entity.Comment;
+import com.example.entity.Post;
+import com.example.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class CommentKeysetTest {
+    private static final LocalDateTime OLDER = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final LocalDateTime NEWER = OLDER.plusMinutes(1);
+    private static final Pageable PAGE = PageRequest.of(0, 2);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User sender;
+    private Post post;
+    private final List<String> topLevel = new ArrayList<>();
+    private final List<String> replies = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sender = em.persist(user());
+        Post p = new Post();
+        p.setContent("post");
+        p.setUser(sender);
+        post = em.persist(p);
+
+        // Trùng createAt (và cùng rank_score) để thứ tự trong nhóm chỉ dựa vào id
+        for (int i = 0; i < 2; i++) {
+            topLevel.add(comment(null, OLDER));
+        }
+        for (int i = 0; i < 3; i++) {
+            topLevel.add(comment(null, NEWER));
+        }
+        Comment parent = em.find(Comment.class, topLevel.get(0));
+        for (int i = 0; i < 5; i++) {
+            replies.add(comment(parent, NEWER));
+        }
+        em.clear();
+    }
+
+    @Test
+    void topLevelPagesFollowCreateAtThenId() {
+        List<String> visited = pageAll(
+                commentRepository.findTopLevelRowsFirstPage(post.getId(), PAGE),
+                last -> commentRepository.findTopLevelRowsAfter(post.getId(), last.createAt(), last.id(), PAGE));
+
+        List<String> expected = new ArrayList<>(topLevel.subList(0, 2).stream().sorted().toList());
+        expected.addAll(topLevel.subList(2, 5).stream().sorted().toList());
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void replyPagesVisitEveryReplyOnce() {
+        List<String> visited = pageAll(
+                commentRepository.findReplyRowsFirstPage(topLevel.get(0), PAGE),
+                last -> commentRepository.findReplyRowsAfter(topLevel.get(0), last.createAt(), last.id(), PAGE));
+
+        assertThat(visited).isEqualTo(replies.stream().sorted().toList());
+    }
+
+    @Test
+    void rankedPagesBreakScoreTiesById() {
+        List<String> visited = new ArrayList<>();
+        List<CommentRankRef> refs = commentRepository.findTopRankedFirstPage(post.getId(), PAGE);
+        while (!refs.isEmpty()) {
+            refs.forEach(ref -> visited.add(ref.id()));
+            CommentRankRef last = refs.get(refs.size() - 1);
+            refs = commentRepository.findTopRankedAfter(post.getId(), last.rankScore(), last.id(), PAGE);
+        }
+
+        List<String> expected = new ArrayList<>(topLevel.subList(2, 5).stream().sorted().toList().reversed());
+        expected.addAll(topLevel.subList(0, 2).stream().sorted().toList().reversed());
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void firstRepliesAreTheEarliestPerParent() {
+        List<String> ids = commentRepository.findFirstReplyIds(List.of(topLevel.get(0), topLevel.get(1)), 2);
+
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(replies.stream().sorted().limit(2).toList());
+    }
+
+    private List<String> pageAll(List<CommentRow> first, Function<CommentRow, List<CommentRow>> next) {
+        List<String> visited = new ArrayList<>();
+        List<CommentRow> rows = first;
+        while (!rows.isEmpty()) {
+            rows.forEach(row -> visited.add(row.id()));
+            rows = next.apply(rows.get(rows.size() - 1));
+        }
+        return visited;
+    }
+
+    private String comment(Comment parent, LocalDateTime createAt) {
+        Comment comment = new Comment();
+        comment.setContent("comment");
+        comment.setSender(sender);
+        comment.setPost(post);
+        comment.setParentComment(parent);
+        String id = em.persistAndFlush(comment).getId();
+        // createAt do @PrePersist gán, ghi đè để tạo các comment trùng thời điểm
+        em.getEntityManager().createQuery("UPDATE Comment c SET c.createAt = :createAt, c.rankScore = :score WHERE c.id = :id")
+                .setParameter("createAt", createAt)
+                .setParameter("score", Comment.computeRankScore(0, 0, createAt))
+                .setParameter("id", id)
+                .executeUpdate();
+        return id;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setUserName("sender");
+        user.setEmail("sender@example.com");
+        return user;
+    }
+}
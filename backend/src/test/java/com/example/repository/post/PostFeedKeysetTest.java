@@ -0,0 +1,102 @@
+package com.example.repository.post;
+
+import com.example.dto.projection.PostRef;
+import com.example.entity.Post;
+import com.example.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class PostFeedKeysetTest {
+    private static final LocalDateTime NEWER = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final LocalDateTime OLDER = NEWER.minusMinutes(1);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    private String viewerId;
+    // id → createAt của các bài viewer được thấy
+    private final Map<String, LocalDateTime> visible = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        User viewer = em.persist(user("viewer"));
+        User author = em.persist(user("author"));
+        viewerId = viewer.getId();
+        post(viewer, NEWER);
+        // Nhiều bài trùng createAt: thứ tự giữa chúng chỉ còn dựa vào id
+        for (int i = 0; i < 4; i++) {
+            visible.put(post(author, NEWER), NEWER);
+        }
+        for (int i = 0; i < 3; i++) {
+            visible.put(post(author, OLDER), OLDER);
+        }
+        em.clear();
+    }
+
+    @Test
+    void pagesVisitEveryPostOnceInFeedOrder() {
+        Pageable page = PageRequest.of(0, 3);
+        List<String> visited = new ArrayList<>();
+        List<PostRef> refs = postRepository.findFeedFirstPage(viewerId, page);
+        while (!refs.isEmpty()) {
+            refs.forEach(ref -> visited.add(ref.id()));
+            PostRef last = refs.get(refs.size() - 1);
+            refs = postRepository.findFeedPageAfter(viewerId, last.createAt(), last.id(), page);
+        }
+
+        List<String> expected = visible.entrySet().stream()
+                .sorted(Map.Entry.<String, LocalDateTime>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey())
+                        .reversed())
+                .map(Map.Entry::getKey)
+                .toList();
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void newerRefsSeekUpFromTheCursor() {
+        List<PostRef> all = postRepository.findFeedFirstPage(viewerId, PageRequest.of(0, 10));
+        PostRef cursor = all.get(2);
+
+        List<PostRef> newer = postRepository.findFeedRefsNewer(viewerId, cursor.createAt(), cursor.id(), PageRequest.of(0, 10));
+
+        assertThat(newer).extracting(PostRef::id).containsExactly(all.get(1).id(), all.get(0).id());
+    }
+
+    private String post(User author, LocalDateTime createAt) {
+        Post post = new Post();
+        post.setContent("post at " + createAt);
+        post.setUser(author);
+        String id = em.persistAndFlush(post).getId();
+        // createAt do @PrePersist gán, ghi đè để tạo các bài trùng thời điểm
+        em.getEntityManager().createQuery("UPDATE Post p SET p.createAt = :createAt WHERE p.id = :id")
+                .setParameter("createAt", createAt)
+                .setParameter("id", id)
+                .executeUpdate();
+        return id;
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setUserName(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.repository.post;
+
+import com.example.dto.projection.PostRef;
+import com.example.entity.Post;
+import com.example.entity.PostImages;
+import com.example.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Khóa số câu SQL của từng fetch plan để phát hiện N+1 quay lại
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PostFetchPlanTest {
+    private static final int AUTHORS = 5;
+    private static final int POSTS_PER_AUTHOR = 4;
+    private static final int IMAGES_PER_POST = 2;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    private Statistics statistics;
+    private String viewerId;
+    private String authorId;
+    private String postId;
+
+    @BeforeEach
+    void setUp() {
+        viewerId = em.persist(user("viewer")).getId();
+        for (int a = 0; a < AUTHORS; a++) {
+            User author = em.persist(user("author" + a));
+            authorId = author.getId();
+            for (int p = 0; p < POSTS_PER_AUTHOR; p++) {
+                Post post = new Post();
+                post.setContent("post " + a + "-" + p);
+                post.setUser(author);
+                List<PostImages> images = new ArrayList<>();
+                for (int i = 0; i < IMAGES_PER_POST; i++) {
+                    PostImages image = new PostImages();
+                    image.setUrlImage("https://img/" + a + "/" + p + "/" + i);
+                    image.setPost(post);
+                    images.add(image);
+                }
+                post.setPostImages(images);
+                postId = em.persist(post).getId();
+            }
+        }
+        em.flush();
+        em.clear();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void feedPageIsASingleProjectionQuery() {
+        List<PostRef> refs = postRepository.findFeedFirstPage(viewerId, PageRequest.of(0, 10));
+
+        assertThat(refs).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void feedCardLoadsAuthorsInlineAndImagesInOneBatch() {
+        List<String> ids = postRepository.findFeedFirstPage(viewerId, PageRequest.of(0, 20))
+                .stream().map(PostRef::id).toList();
+        statistics.clear();
+
+        List<Post> posts = postRepository.findByIdIn(ids);
+
+        touch(posts);
+        assertThat(posts).hasSize(AUTHORS * POSTS_PER_AUTHOR);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void profileGridJoinsImagesAndLoadsOwnerOnce() {
+        List<Post> posts = postRepository.findByUser_Id(authorId);
+
+        touch(posts);
+        assertThat(posts).hasSize(POSTS_PER_AUTHOR);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void detailLoadsEverythingInOneStatement() {
+        Post post = postRepository.findDetailById(postId).orElseThrow();
+
+        touch(List.of(post));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // Chạm đúng các association mà PostMapper dùng khi dựng PostResponse
+    private void touch(List<Post> posts) {
+        for (Post post : posts) {
+            assertThat(post.getUser().getUserName()).isNotNull();
+            assertThat(post.getPostImages()).hasSize(IMAGES_PER_POST);
+        }
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setUserName(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+}
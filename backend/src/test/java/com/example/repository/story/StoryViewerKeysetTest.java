@@ -0,0 +1,106 @@
+package com.example.repository.story;
+
+import com.example.dto.projection.StoryViewerRow;
+import com.example.entity.Story;
+import com.example.entity.StoryView;
+import com.example.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class StoryViewerKeysetTest {
+    private static final LocalDateTime NEWER = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final LocalDateTime OLDER = NEWER.minusMinutes(1);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private StoryViewRepository storyViewRepository;
+
+    private Story story;
+    private String otherView;
+    // id các lượt xem trùng viewedAt mới nhất, giảm dần
+    private List<String> ties;
+
+    @BeforeEach
+    void setUp() {
+        User author = em.persist(user("author"));
+        story = story(author);
+        Story other = story(author);
+        List<String> newest = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            User viewer = em.persist(user("viewer" + i));
+            if (i < 3) {
+                newest.add(view(story, viewer, NEWER));
+            } else {
+                view(story, viewer, OLDER);
+            }
+            if (i == 0) {
+                otherView = view(other, viewer, NEWER);
+            }
+        }
+        ties = newest.stream().sorted(Comparator.reverseOrder()).toList();
+        em.clear();
+    }
+
+    @Test
+    void viewsOfOtherStoriesAreExcluded() {
+        List<StoryViewerRow> rows = storyViewRepository.findViewersFirstPage(story.getId(), PageRequest.of(0, 10));
+
+        assertThat(rows).hasSize(4).extracting(StoryViewerRow::viewId).doesNotContain(otherView);
+    }
+
+    @Test
+    void tiesOnViewedAtAreOrderedById() {
+        Pageable page = PageRequest.of(0, 2);
+        List<StoryViewerRow> first = storyViewRepository.findViewersFirstPage(story.getId(), page);
+        StoryViewerRow last = first.get(first.size() - 1);
+        // Trang sau bắt đầu giữa nhóm trùng viewedAt, không bỏ sót hay lặp lượt xem nào
+        List<StoryViewerRow> next = storyViewRepository.findViewersAfter(story.getId(), last.viewedAt(), last.viewId(), page);
+
+        assertThat(first).extracting(StoryViewerRow::viewId).containsExactlyElementsOf(ties.subList(0, 2));
+        assertThat(next.get(0).viewId()).isEqualTo(ties.get(2));
+        assertThat(next.get(1).viewedAt()).isEqualTo(OLDER);
+    }
+
+    private Story story(User author) {
+        Story s = new Story();
+        s.setUser(author);
+        s.setMediaUrl("https://media/" + author.getUserName());
+        s.setMediaType(Story.MediaType.IMAGE);
+        return em.persist(s);
+    }
+
+    private String view(Story target, User viewer, LocalDateTime viewedAt) {
+        StoryView view = new StoryView();
+        view.setStory(target);
+        view.setViewer(viewer);
+        String id = em.persistAndFlush(view).getId();
+        // viewedAt do @PrePersist gán, ghi đè để tạo các lượt xem trùng thời điểm
+        em.getEntityManager().createQuery("UPDATE StoryView v SET v.viewedAt = :viewedAt WHERE v.id = :id")
+                .setParameter("viewedAt", viewedAt)
+                .setParameter("id", id)
+                .executeUpdate();
+        return id;
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setUserName(name);
+        user.setEmail(name + "@example.com");
+        return user;
+    }
+}
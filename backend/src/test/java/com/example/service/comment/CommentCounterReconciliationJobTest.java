@@ -0,0 +1,67 @@
+package com.example.service.comment;
+
+import com.example.entity.Comment;
+import com.example.repository.comment.CommentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CommentCounterReconciliationJobTest {
+
+    @Test
+    void scheduledRunIsSkippedWhileTheStartupRunIsInProgress() throws Exception {
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        CommentCounterReconciliationJob job = new CommentCounterReconciliationJob(commentRepository, jdbcTemplate);
+        ReflectionTestUtils.setField(job, "chunkSize", 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return List.of();
+        });
+
+        CompletableFuture<Void> startup = CompletableFuture.runAsync(job::reconcileOnStartup);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        job.reconcile();
+        release.countDown();
+        startup.get(5, TimeUnit.SECONDS);
+
+        verify(commentRepository, never()).findIdsAfter(anyString(), any());
+    }
+
+    @Test
+    void rankScoreSqlMatchesTheJavaFormula() {
+        EmbeddedDatabase db = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        try {
+            LocalDateTime createAt = LocalDateTime.of(2024, 5, 1, 12, 34, 56);
+            Double score = new JdbcTemplate(db).queryForObject(
+                    "SELECT " + Comment.rankScoreSql("?", "?", "CAST(? AS TIMESTAMP)"), Double.class,
+                    7, 3, createAt);
+
+            assertThat(score).isCloseTo(Comment.computeRankScore(7, 3, createAt), within(1e-9));
+        } finally {
+            db.shutdown();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.service.comment;
+
+import com.example.dto.request.CommentRequestDTO;
+import com.example.dto.response.user.CommentResponseDTO;
+import com.example.entity.Comment;
+import com.example.entity.CommentLike;
+import com.example.entity.Post;
+import com.example.entity.User;
+import com.example.mapper.CommentMapper;
+import com.example.repository.comment.CommentRepository;
+import com.example.service.post.PostCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@Import({CommentService.class, CommentTreeLoader.class, CommentMapper.class})
+class CommentSubtreeTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CommentTreeLoader commentTreeLoader;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @MockitoBean
+    private PostCounterService postCounterService;
+
+    private User sender;
+    private Post post;
+    private Comment root;
+    private Comment reply;
+    private Comment nested;
+    private Comment sibling;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUserName("sender");
+        user.setEmail("sender@example.com");
+        sender = em.persist(user);
+        Post p = new Post();
+        p.setContent("post");
+        p.setUser(sender);
+        post = em.persist(p);
+
+        root = comment(null);
+        reply = comment(root);
+        nested = comment(reply);
+        sibling = comment(null);
+        CommentLike like = new CommentLike();
+        like.setComment(nested);
+        like.setUser(sender);
+        em.persist(like);
+        em.flush();
+    }
+
+    @Test
+    void deleteRemovesTheWholeThreadByPath() {
+        commentService.deleteComment(root.getId());
+
+        assertRemaining(sibling.getId());
+        verify(postCounterService).incrementComments(post.getId(), -3);
+    }
+
+    @Test
+    void deleteOfALegacyCommentFollowsParentLinks() {
+        clearPaths();
+
+        commentService.deleteComment(root.getId());
+
+        assertRemaining(sibling.getId());
+        verify(postCounterService).incrementComments(post.getId(), -3);
+    }
+
+    @Test
+    void legacySubtreeKeepsItsReplies() {
+        clearPaths();
+
+        CommentResponseDTO dto = commentTreeLoader.loadSubtree(post.getId(), root.getId(), null, null);
+
+        assertThat(dto.getReplies()).extracting(CommentResponseDTO::getId).containsExactly(reply.getId());
+        CommentResponseDTO child = dto.getReplies().get(0);
+        assertThat(child.getReplies()).extracting(CommentResponseDTO::getId).containsExactly(nested.getId());
+        assertThat(child.getReplies().get(0).getLikesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void replyPastTheDepthLimitIsRejected() {
+        em.getEntityManager().createQuery("UPDATE Comment c SET c.depth = :depth WHERE c.id = :id")
+                .setParameter("depth", Comment.MAX_DEPTH - 1)
+                .setParameter("id", nested.getId())
+                .executeUpdate();
+        em.clear();
+
+        assertThatThrownBy(() -> commentService.addComment(
+                new CommentRequestDTO("too deep", sender.getId(), post.getId(), nested.getId())))
+                .isInstanceOf(CommentDepthExceededException.class);
+        assertThat(commentRepository.count()).isEqualTo(4);
+    }
+
+    private void assertRemaining(String... ids) {
+        em.clear();
+        assertThat(commentRepository.findAll()).extracting(Comment::getId).containsExactlyInAnyOrder(ids);
+        assertThat(em.getEntityManager().createQuery("SELECT COUNT(cl) FROM CommentLike cl", Long.class)
+                .getSingleResult()).isZero();
+    }
+
+    // Giống dữ liệu có từ trước khi thêm materialized path
+    private void clearPaths() {
+        em.getEntityManager().createQuery("UPDATE Comment c SET c.path = NULL, c.depth = NULL").executeUpdate();
+        em.clear();
+    }
+
+    private Comment comment(Comment parent) {
+        Comment comment = new Comment();
+        comment.setContent("comment");
+        comment.setSender(sender);
+        comment.setPost(post);
+        comment.setParentComment(parent);
+        return em.persistAndFlush(comment);
+    }
+}
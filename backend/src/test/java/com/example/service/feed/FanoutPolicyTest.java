@@ -0,0 +1,77 @@
+package com.example.service.feed;
+
+import com.example.dto.projection.IdCount;
+import com.example.repository.follow.FollowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FanoutPolicyTest {
+    private final FollowRepository followRepository = mock(FollowRepository.class);
+    private final FanoutPolicy policy = new FanoutPolicy(followRepository);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(policy, "followerThreshold", 10L);
+        ReflectionTestUtils.setField(policy, "exitThreshold", 8L);
+        // Luôn đếm lại để mỗi bước thấy số follower mới
+        ReflectionTestUtils.setField(policy, "countTtlMs", -1L);
+        ReflectionTestUtils.setField(policy, "timelineTtlDays", 30L);
+    }
+
+    @Test
+    void authorBetweenTheThresholdsKeepsItsMode() {
+        when(followRepository.countByUserId("a")).thenReturn(9L);
+        assertThat(policy.shouldFanOut("a")).isTrue();
+
+        when(followRepository.countByUserId("a")).thenReturn(10L);
+        assertThat(policy.shouldFanOut("a")).isFalse();
+
+        when(followRepository.countByUserId("a")).thenReturn(9L);
+        assertThat(policy.shouldFanOut("a")).isFalse();
+
+        when(followRepository.countByUserId("a")).thenReturn(7L);
+        assertThat(policy.shouldFanOut("a")).isTrue();
+    }
+
+    @Test
+    void refreshOnlyDowngradesBelowTheExitThreshold() {
+        refresh(new IdCount("a", 10L));
+        assertThat(policy.highFollowerAuthors(List.of("a", "b"))).containsExactly("a");
+
+        refresh(new IdCount("a", 9L));
+        when(followRepository.countByUserId("a")).thenReturn(9L);
+        assertThat(policy.shouldFanOut("a")).isFalse();
+
+        refresh();
+        when(followRepository.countByUserId("a")).thenReturn(7L);
+        assertThat(policy.shouldFanOut("a")).isTrue();
+        // Bài đăng lúc còn pull không có trong timeline: vẫn pull trong thời gian giữ timeline
+        assertThat(policy.isHighFollower("a")).isTrue();
+    }
+
+    @Test
+    void downgradedAuthorStopsBeingPulledAfterTheRetentionWindow() throws Exception {
+        ReflectionTestUtils.setField(policy, "timelineTtlDays", 0L);
+        refresh(new IdCount("a", 10L));
+        refresh();
+        assertThat(policy.isHighFollower("a")).isTrue();
+
+        Thread.sleep(5);
+        refresh();
+
+        assertThat(policy.isHighFollower("a")).isFalse();
+    }
+
+    private void refresh(IdCount... counts) {
+        when(followRepository.findFollowerCountsAtLeast(anyLong())).thenReturn(List.of(counts));
+        policy.refresh();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.service.feed;
+
+import com.example.dto.projection.PostRef;
+import com.example.event.FollowChangedEvent;
+import com.example.event.PostCreatedEvent;
+import com.example.repository.follow.FollowRepository;
+import com.example.repository.post.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedFanoutServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final FollowRepository followRepository = mock(FollowRepository.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final FanoutPolicy fanoutPolicy = mock(FanoutPolicy.class);
+    private InMemoryTimelineStore timelineStore;
+    private FeedFanoutService fanoutService;
+
+    @BeforeEach
+    void setUp() {
+        timelineStore = new InMemoryTimelineStore(800);
+        fanoutService = new FeedFanoutService(timelineStore, followRepository, postRepository,
+                fanoutPolicy, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(fanoutService, "maxSize", 800);
+        ReflectionTestUtils.setField(fanoutService, "backfillSize", 50);
+        when(fanoutPolicy.shouldFanOut(anyString())).thenReturn(true);
+    }
+
+    @Test
+    void fanOutDoesNotMarkTimelineAsMaterialized() {
+        when(followRepository.findFollowerIdsByUserId("author")).thenReturn(List.of("viewer"));
+
+        fanoutService.onPostCreated(new PostCreatedEvent("new", "author", NOW));
+
+        assertThat(timelineStore.exists("viewer")).isFalse();
+    }
+
+    @Test
+    void rebuildKeepsOlderPostsAndEntriesPushedBeforeIt() {
+        when(followRepository.findFollowerIdsByUserId("author")).thenReturn(List.of("viewer"));
+        when(followRepository.findFollowingIdsByFollowerId("viewer")).thenReturn(List.of("author"));
+        when(postRepository.findPostRefsByAuthors(any(), any(Pageable.class))).thenReturn(List.of(
+                new PostRef("old2", NOW.minusDays(1)),
+                new PostRef("old1", NOW.minusDays(2))));
+
+        fanoutService.onPostCreated(new PostCreatedEvent("new", "author", NOW));
+        fanoutService.rebuild("viewer");
+
+        assertThat(timelineStore.exists("viewer")).isTrue();
+        assertThat(timelineStore.read("viewer", null, 10))
+                .extracting(TimelineEntry::postId)
+                .containsExactly("new", "old2", "old1");
+    }
+
+    @Test
+    void userFollowingNobodyIsMaterializedOnce() {
+        when(followRepository.findFollowingIdsByFollowerId("viewer")).thenReturn(List.of());
+
+        fanoutService.rebuild("viewer");
+
+        assertThat(timelineStore.exists("viewer")).isTrue();
+        assertThat(timelineStore.read("viewer", null, 10)).isEmpty();
+    }
+
+    @Test
+    void highFollowerAuthorsArePulledNotPushed() {
+        when(fanoutPolicy.shouldFanOut("celebrity")).thenReturn(false);
+        when(fanoutPolicy.isHighFollower("celebrity")).thenReturn(true);
+        when(followRepository.findFollowerIdsByUserId("celebrity")).thenReturn(List.of("viewer"));
+        when(followRepository.findFollowingIdsByFollowerId("viewer")).thenReturn(List.of("celebrity", "friend"));
+        when(postRepository.findPostRefsByAuthors(eq(List.of("friend")), any(Pageable.class)))
+                .thenReturn(List.of(new PostRef("friend-post", NOW.minusHours(1))));
+
+        fanoutService.onPostCreated(new PostCreatedEvent("celebrity-post", "celebrity", NOW));
+        fanoutService.onFollowChanged(new FollowChangedEvent("celebrity", "viewer", true));
+        fanoutService.rebuild("viewer");
+
+        // Bài của tác giả lớn không vào timeline, kể cả khi dựng lại; FeedService pull chúng lúc đọc
+        assertThat(timelineStore.read("viewer", null, 10))
+                .extracting(TimelineEntry::postId)
+                .containsExactly("friend-post");
+        verify(postRepository, never()).findPostRefsByAuthor(eq("celebrity"), any(Pageable.class));
+    }
+}
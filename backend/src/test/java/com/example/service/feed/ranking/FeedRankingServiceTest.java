@@ -0,0 +1,88 @@
+package com.example.service.feed.ranking;
+
+import com.example.dto.projection.RankCandidate;
+import com.example.dto.response.CursorPageResponse;
+import com.example.dto.response.post.PostResponse;
+import com.example.mapper.PostMapper;
+import com.example.repository.post.PostRepository;
+import com.example.service.post.PostCardCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeedRankingServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PostCardCache postCardCache = mock(PostCardCache.class);
+    private FeedRankingService service;
+
+    @BeforeEach
+    void setUp() {
+        FeedRanker byLikes = new FeedRanker() {
+            @Override
+            public String name() {
+                return "likes";
+            }
+
+            @Override
+            public List<RankCandidate> rank(String viewerId, List<RankCandidate> candidates) {
+                return candidates.stream().sorted(Comparator.comparingLong(RankCandidate::likeCount).reversed()).toList();
+            }
+        };
+        service = new FeedRankingService(List.of(byLikes), postRepository, mock(PostMapper.class), postCardCache,
+                new SimpleMeterRegistry(), 100, 30);
+        ReflectionTestUtils.setField(service, "defaultStrategy", "likes");
+        ReflectionTestUtils.setField(service, "experimentStrategy", "");
+        ReflectionTestUtils.setField(service, "candidatePool", 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void laterPagesComeFromTheFirstPageRanking() {
+        when(postRepository.findRankCandidates(eq("viewer"), any(Pageable.class))).thenReturn(List.of(
+                candidate("a", 30), candidate("b", 20), candidate("c", 10)));
+        CursorPageResponse<PostResponse> first = service.getRankedFeed("viewer", null, 2);
+
+        // Giữa hai trang: có bài mới điểm cao và "c" vượt lên
+        when(postRepository.findRankCandidates(eq("viewer"), any(Pageable.class))).thenReturn(List.of(
+                candidate("new", 99), candidate("c", 50), candidate("a", 30), candidate("b", 20)));
+        CursorPageResponse<PostResponse> second = service.getRankedFeed("viewer", first.getNextCursor(), 2);
+
+        ArgumentCaptor<List<String>> pages = ArgumentCaptor.forClass(List.class);
+        verify(postCardCache, times(2)).getCards(pages.capture());
+        assertThat(pages.getAllValues()).containsExactly(List.of("a", "b"), List.of("c"));
+        assertThat(second.isHasMore()).isFalse();
+        verify(postRepository, times(1)).findRankCandidates(eq("viewer"), any(Pageable.class));
+    }
+
+    @Test
+    void cursorOfAnotherViewerIsRejected() {
+        when(postRepository.findRankCandidates(any(), any(Pageable.class))).thenReturn(List.of(
+                candidate("a", 3), candidate("b", 2), candidate("c", 1)));
+        String cursor = service.getRankedFeed("viewer", null, 1).getNextCursor();
+
+        assertThatThrownBy(() -> service.getRankedFeed("other", cursor, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static RankCandidate candidate(String id, long likes) {
+        return new RankCandidate(id, "author", NOW, likes, 0L);
+    }
+}
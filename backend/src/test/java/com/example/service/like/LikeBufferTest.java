@@ -0,0 +1,151 @@
+package com.example.service.like;
+
+import com.example.repository.like.LikeRepository;
+import com.example.service.post.HotPostDetector;
+import com.example.service.post.PostCounterService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikeBufferTest {
+    private static final String INSERT_SQL = "INSERT IGNORE INTO post_like (id, user_id, post_id, create_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LikeRepository likeRepository = mock(LikeRepository.class);
+    private final PostCounterService counters = new PostCounterService(mock(JdbcTemplate.class), new HotPostDetector(10, 20, 60000));
+    private final LikeBuffer buffer = new LikeBuffer(jdbcTemplate, likeRepository, counters);
+
+    @Test
+    void concurrentLikesOfTheSamePairCountOnce() throws Exception {
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        // Query chậm để mọi thread cùng đọc "chưa like" từ DB trước khi ghi vào buffer
+        when(likeRepository.existsByUserIdAndPostId("u", "p")).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return false;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return buffer.set("u", "p", true);
+            }));
+        }
+        start.countDown();
+        int changed = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(5, TimeUnit.SECONDS)) {
+                changed++;
+            }
+        }
+        pool.shutdown();
+
+        assertThat(changed).isEqualTo(1);
+        assertThat(counters.pendingLikes("p")).isEqualTo(1);
+        assertThat(buffer.pendingState("u", "p")).isTrue();
+    }
+
+    @Test
+    void likeThenUnlikeLeavesNothingToWrite() {
+        when(likeRepository.existsByUserIdAndPostId("u", "p")).thenReturn(false);
+
+        assertThat(buffer.set("u", "p", true)).isTrue();
+        assertThat(buffer.set("u", "p", false)).isTrue();
+        buffer.flush();
+
+        assertThat(counters.pendingLikes("p")).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesTheFinalStateAndUsesBufferForLaterToggles() {
+        when(likeRepository.existsByUserIdAndPostId("u", "p")).thenReturn(false);
+        when(jdbcTemplate.batchUpdate(eq(INSERT_SQL), anyList())).thenReturn(new int[]{1});
+        buffer.set("u", "p", true);
+
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(INSERT_SQL), rows.capture());
+        assertThat(rows.getValue()).hasSize(1);
+        assertThat(buffer.pendingState("u", "p")).isNull();
+        // Sau flush, lần like lặp lại được xác định từ DB là no-op
+        when(likeRepository.existsByUserIdAndPostId("u", "p")).thenReturn(true);
+        assertThat(buffer.set("u", "p", true)).isFalse();
+    }
+
+    @Test
+    void insertIgnoredByTheUniqueKeyGivesTheCountBack() {
+        when(likeRepository.existsByUserIdAndPostId("u", "p")).thenReturn(false);
+        when(jdbcTemplate.batchUpdate(eq(INSERT_SQL), anyList())).thenReturn(new int[]{0});
+        buffer.set("u", "p", true);
+
+        buffer.flush();
+
+        assertThat(counters.pendingLikes("p")).isZero();
+    }
+
+    @Test
+    void partialBatchFailureRequeuesOnlyUnwrittenRows() {
+        when(likeRepository.existsByUserIdAndPostId(anyString(), eq("p"))).thenReturn(false);
+        buffer.set("a", "p", true);
+        buffer.set("b", "p", true);
+        // Driver dừng ở dòng thứ hai: dòng đầu đã commit, dòng sau phải giữ lại trong buffer
+        when(jdbcTemplate.batchUpdate(eq(INSERT_SQL), anyList())).thenThrow(new DataIntegrityViolationException("batch",
+                new BatchUpdateException(new int[]{1, Statement.EXECUTE_FAILED})));
+
+        buffer.flush();
+
+        int buffered = (buffer.pendingState("a", "p") != null ? 1 : 0) + (buffer.pendingState("b", "p") != null ? 1 : 0);
+        assertThat(buffered).isEqualTo(1);
+        assertThat(counters.pendingLikes("p")).isEqualTo(2);
+    }
+
+    @Test
+    void slowExistenceQueryDoesNotBlockFlush() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(likeRepository.existsByUserIdAndPostId("slow", "p")).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await();
+            return false;
+        });
+        when(likeRepository.existsByUserIdAndPostId("u", "p")).thenReturn(false);
+        when(jdbcTemplate.batchUpdate(eq(INSERT_SQL), anyList())).thenReturn(new int[]{1});
+        buffer.set("u", "p", true);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Boolean> slow = pool.submit(() -> buffer.set("slow", "p", true));
+        assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<?> flush = Executors.newSingleThreadExecutor().submit(buffer::flush);
+        flush.get(5, TimeUnit.SECONDS);
+
+        releaseQuery.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isTrue();
+        pool.shutdown();
+    }
+}
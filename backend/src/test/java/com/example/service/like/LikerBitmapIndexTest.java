@@ -0,0 +1,108 @@
+package com.example.service.like;
+
+import com.example.repository.like.LikeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LikerBitmapIndexTest {
+    private final LikeRepository likeRepository = mock(LikeRepository.class);
+    private final LikeBuffer likeBuffer = mock(LikeBuffer.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LikerBitmapIndex index;
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    private LikerBitmapIndex index(int maxUsers) {
+        index = new LikerBitmapIndex(likeRepository, likeBuffer, new UserOrdinalRegistry(maxUsers),
+                meterRegistry, 10, 1 << 20, 1);
+        return index;
+    }
+
+    @Test
+    void togglesDuringBuildAreAppliedAfterIt() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(likeRepository.findLikerIdsAfter(eq("p"), eq(""), any())).thenAnswer(invocation -> {
+            scanning.countDown();
+            release.await();
+            return List.of("a", "b");
+        });
+        // "c" đã like nhưng còn trong buffer lúc bắt đầu dựng
+        when(likeBuffer.pendingForPost("p")).thenReturn(Map.of("c", true));
+        LikerBitmapIndex index = index(100);
+
+        assertThat(index.isLiked("p", 100, "a")).isNull();
+        assertThat(scanning.await(5, TimeUnit.SECONDS)).isTrue();
+        when(likeBuffer.pendingState("a", "p")).thenReturn(false);
+        when(likeBuffer.pendingState("d", "p")).thenReturn(true);
+        index.onToggle("p", "a", false);
+        index.onToggle("p", "d", true);
+        release.countDown();
+
+        awaitBuilt(() -> index.isLiked("p", 100, "b") != null);
+        assertThat(index.isLiked("p", 100, "a")).isFalse();
+        assertThat(index.isLiked("p", 100, "b")).isTrue();
+        assertThat(index.isLiked("p", 100, "c")).isTrue();
+        assertThat(index.isLiked("p", 100, "d")).isTrue();
+        assertThat(index.isLiked("p", 100, "e")).isFalse();
+    }
+
+    @Test
+    void growingBitmapIsReweighed() throws Exception {
+        when(likeRepository.findLikerIdsAfter(eq("p"), eq(""), any())).thenReturn(List.of("a"));
+        LikerBitmapIndex index = index(100_000);
+        index.isLiked("p", 100, "a");
+        awaitBuilt(() -> index.isLiked("p", 100, "a") != null);
+        double before = weight();
+
+        when(likeBuffer.pendingState(any(), eq("p"))).thenReturn(true);
+        for (int i = 0; i < 10_000; i++) {
+            index.onToggle("p", "u" + i, true);
+        }
+
+        assertThat(weight()).isGreaterThan(before);
+    }
+
+    @Test
+    void newOrdinalGenerationDropsOldBitmaps() throws Exception {
+        when(likeRepository.findLikerIdsAfter(eq("p"), eq(""), any())).thenReturn(List.of("a", "b"));
+        LikerBitmapIndex index = index(2);
+        index.isLiked("p", 100, "a");
+
+        awaitBuilt(() -> weight() > 0);
+
+        // Đã đủ 2 user: generation mới bắt đầu, bitmap dựng trên generation cũ bị bỏ
+        assertThat(index.isLiked("p", 100, "a")).isNull();
+        assertThat(meterRegistry.get("post.liker.index.posts").gauge().value()).isZero();
+    }
+
+    private double weight() {
+        return meterRegistry.get("post.liker.index.weight").gauge().value();
+    }
+
+    private static void awaitBuilt(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
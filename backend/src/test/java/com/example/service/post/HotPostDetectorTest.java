@@ -0,0 +1,46 @@
+package com.example.service.post;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotPostDetectorTest {
+
+    @Test
+    void postBecomesHotOnceTheWindowRateReachesTheThreshold() {
+        // Cửa sổ 10 giây, ngưỡng 1 like/giây: cần 10 lần trong cửa sổ
+        HotPostDetector detector = new HotPostDetector(10, 1, 60000);
+        for (int i = 0; i < 9; i++) {
+            detector.record("p");
+        }
+        assertThat(detector.isHot("p")).isFalse();
+
+        detector.record("p");
+
+        assertThat(detector.isHot("p")).isTrue();
+        assertThat(detector.hotPostRates()).containsOnlyKeys("p");
+        assertThat(detector.isHot("other")).isFalse();
+    }
+
+    @Test
+    void hotPostStaysHotUntilTheCooldownPasses() {
+        HotPostDetector detector = new HotPostDetector(10, 0.1, 60000);
+        detector.record("p");
+
+        detector.evaluate();
+
+        assertThat(detector.isHot("p")).isTrue();
+    }
+
+    @Test
+    void cooledPostIsNoLongerHot() {
+        // cool-down âm: bài hết hot ngay ở lần evaluate đầu tiên
+        HotPostDetector detector = new HotPostDetector(10, 0.1, -1);
+        detector.record("p");
+
+        detector.evaluate();
+
+        assertThat(detector.isHot("p")).isFalse();
+        assertThat(detector.hotPostRates()).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.service.post;
+
+import com.example.dto.projection.PostCounters;
+import com.example.entity.Post;
+import com.example.mapper.PostMapper;
+import com.example.repository.post.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostCardCacheTest {
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PostMapper postMapper = mock(PostMapper.class);
+    private final PostCardCache cache = new PostCardCache(postRepository, postMapper,
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 1 << 20, 10);
+
+    @Test
+    void countersAreReadFreshWhileTheCardStaysCached() {
+        Post post = new Post();
+        when(postRepository.findByIdIn(anyCollection())).thenReturn(List.of(post));
+        // Card nạp trước khi flush mang số đếm cũ
+        when(postMapper.toPostCard(any(Post.class))).thenReturn(
+                new PostCard("p", "content", LocalDateTime.now(), List.of(), 5, 1, null));
+        when(postRepository.findCountersByIdIn(anyCollection()))
+                .thenReturn(List.of(new PostCounters("p", 5L, 1L)))
+                .thenReturn(List.of(new PostCounters("p", 9L, 2L)));
+
+        assertThat(cache.getCard("p").likeCount()).isEqualTo(5);
+        PostCard afterFlush = cache.getCard("p");
+
+        assertThat(afterFlush.likeCount()).isEqualTo(9);
+        assertThat(afterFlush.commentCount()).isEqualTo(2);
+        verify(postRepository, times(1)).findByIdIn(anyCollection());
+    }
+
+    @Test
+    void deletedPostIsSkipped() {
+        when(postRepository.findByIdIn(anyCollection())).thenReturn(List.of(new Post()));
+        when(postMapper.toPostCard(any(Post.class))).thenReturn(
+                new PostCard("p", "content", LocalDateTime.now(), List.of(), 0, 0, null));
+        when(postRepository.findCountersByIdIn(anyCollection())).thenReturn(List.of());
+
+        assertThat(cache.getCards(List.of("p"))).isEmpty();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.service.post;
+
+import com.example.dto.projection.IdCount;
+import com.example.repository.comment.CommentRepository;
+import com.example.repository.like.LikeRepository;
+import com.example.repository.post.PostRepository;
+import com.example.service.like.LikeBuffer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostCounterReconciliationJobTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LikeRepository likeRepository = mock(LikeRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private final PostCounterService counters = new PostCounterService(jdbcTemplate, new HotPostDetector(10, 20, 60000));
+    private final LikeBuffer likeBuffer = new LikeBuffer(jdbcTemplate, likeRepository, counters);
+    private final PostCounterReconciliationJob job = new PostCounterReconciliationJob(mock(PostRepository.class),
+            likeRepository, commentRepository, counters, likeBuffer, jdbcTemplate);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pendingDeltasAreNotCountedTwice() {
+        // 5 dòng post_like trong DB, trong đó 1 like đã được LikeBuffer ghi nhưng delta chưa flush
+        when(likeRepository.countByPostIds(List.of("p"))).thenReturn(List.of(new IdCount("p", 5L)));
+        when(commentRepository.countByPostIds(List.of("p"))).thenReturn(List.of(new IdCount("p", 3L)));
+        counters.incrementLikes("p", 1);
+        // Comment đã commit, delta chưa flush
+        counters.incrementComments("p", 1);
+        // Một like khác còn nằm trong LikeBuffer (chưa có dòng trong DB)
+        when(likeRepository.existsByUserIdAndPostId("u", "p")).thenReturn(false);
+        likeBuffer.set("u", "p", true);
+
+        job.reconcileChunk(List.of("p"));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE post SET like_count = ?, comment_count = ? WHERE id = ?"), rows.capture());
+        Object[] row = rows.getValue().get(0);
+        // Sau khi các delta được flush: 4 + 2 = 6 like (5 dòng + 1 chờ ghi), 2 + 1 = 3 comment
+        assertThat(row[0]).isEqualTo(4L);
+        assertThat(row[1]).isEqualTo(2L);
+        assertThat((long) row[0] + counters.pendingLikes("p")).isEqualTo(6L);
+        assertThat((long) row[1] + counters.pendingComments("p")).isEqualTo(3L);
+    }
+}
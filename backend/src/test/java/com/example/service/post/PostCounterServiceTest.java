@@ -0,0 +1,83 @@
+package com.example.service.post;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class PostCounterServiceTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PostCounterService counters = new PostCounterService(jdbcTemplate, new HotPostDetector(10, 20, 60000));
+
+    @Test
+    void partiallyFailedBatchRequeuesOnlyTheFailedRows() {
+        counters.incrementLikes("a", 1);
+        counters.incrementLikes("b", 2);
+        counters.incrementLikes("c", 3);
+        // Dòng của bài "b" lỗi, các dòng còn lại trong batch đã được ghi
+        doAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            int[] counts = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                counts[i] = "b".equals(rows.get(i)[2]) ? Statement.EXECUTE_FAILED : 1;
+            }
+            throw new DataIntegrityViolationException("batch failed", new BatchUpdateException(counts));
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        counters.flush();
+
+        assertThat(counters.pendingLikes("a")).isZero();
+        assertThat(counters.pendingLikes("b")).isEqualTo(2);
+        assertThat(counters.pendingLikes("c")).isZero();
+    }
+
+    @Test
+    void rowsAfterAStoppedBatchAreRequeued() {
+        counters.incrementLikes("a", 1);
+        counters.incrementComments("b", 1);
+        // Driver dừng ngay ở dòng đầu tiên: không biết dòng nào đã chạy nên ghi lại tất cả
+        doAnswer(invocation -> {
+            throw new DataIntegrityViolationException("batch failed", new BatchUpdateException(new int[0]));
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        counters.flush();
+
+        assertThat(counters.pendingLikes("a")).isEqualTo(1);
+        assertThat(counters.pendingComments("b")).isEqualTo(1);
+    }
+
+    @Test
+    void hotPostDeltasWaitForTheMergeInsteadOfTheRegularFlush() {
+        HotPostDetector detector = new HotPostDetector(10, 0.1, 60000);
+        PostCounterService counters = new PostCounterService(jdbcTemplate, detector);
+        counters.incrementLikes("p", 1);
+        detector.record("p");
+        counters.incrementLikes("p", 2);
+        counters.incrementLikes("q", 1);
+
+        counters.flush();
+
+        // Delta ghi trước khi bài thành hot đi theo flush thường, phần sau chờ lần gộp
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) ->
+                rows.size() == 2 && rows.stream().anyMatch(r -> "p".equals(r[2]) && (long) r[0] == 1)));
+        assertThat(counters.pendingLikes("p")).isEqualTo(2);
+        assertThat(counters.pendingLikes("q")).isZero();
+
+        counters.mergeHot();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> rows) ->
+                rows.size() == 1 && "p".equals(rows.get(0)[2]) && (long) rows.get(0)[0] == 2));
+        assertThat(counters.pendingLikes("p")).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.service.story;
+
+import com.example.dto.projection.ExpiredStory;
+import com.example.repository.story.StoryRepository;
+import com.example.repository.story.StoryViewRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoryExpiryJobTest {
+    private final StoryRepository storyRepository = mock(StoryRepository.class);
+    private final StoryViewRepository storyViewRepository = mock(StoryViewRepository.class);
+    private final StoryMediaCleaner storyMediaCleaner = mock(StoryMediaCleaner.class);
+    private final StoryExpiryJob job = new StoryExpiryJob(storyRepository, storyViewRepository, storyMediaCleaner);
+
+    @Test
+    void expiredStoriesAreDeletedInBatchesAfterTheirViews() {
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        ReflectionTestUtils.setField(job, "viewChunkSize", 2);
+        when(storyRepository.findExpired(any(LocalDateTime.class), any())).thenReturn(
+                List.of(expired("s1"), expired("s2")),
+                List.of(expired("s3")));
+        // s1, s2 có 3 lượt xem: hai chunk; s3 không có lượt xem nào
+        when(storyViewRepository.findIdsByStoryIds(eq(List.of("s1", "s2")), any())).thenReturn(
+                List.of("v1", "v2"),
+                List.of("v3"));
+        when(storyViewRepository.findIdsByStoryIds(eq(List.of("s3")), any())).thenReturn(List.of());
+
+        job.expireDue();
+
+        InOrder order = inOrder(storyViewRepository, storyRepository, storyMediaCleaner);
+        order.verify(storyViewRepository).deleteByIdIn(List.of("v1", "v2"));
+        order.verify(storyViewRepository).deleteByIdIn(List.of("v3"));
+        order.verify(storyRepository).deleteByIdIn(List.of("s1", "s2"));
+        order.verify(storyMediaCleaner).deleteMedia(List.of("media/s1", "media/s2"));
+        order.verify(storyRepository).deleteByIdIn(List.of("s3"));
+        order.verify(storyMediaCleaner).deleteMedia(List.of("media/s3"));
+        // Lô thứ hai chưa đầy: không quét thêm
+        verify(storyRepository, times(2)).findExpired(any(LocalDateTime.class), any());
+    }
+
+    @Test
+    void nothingDueTouchesNothingElse() {
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        when(storyRepository.findExpired(any(LocalDateTime.class), any())).thenReturn(List.of());
+
+        job.expireDue();
+
+        verify(storyRepository, never()).deleteByIdIn(anyList());
+        verify(storyMediaCleaner, never()).deleteMedia(anyList());
+    }
+
+    private ExpiredStory expired(String id) {
+        return new ExpiredStory(id, "author", "media/" + id);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.service.story;
+
+import com.example.service.FileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoryMediaCleanerTest {
+    private final FileService fileService = mock(FileService.class);
+    private final StoryMediaCleaner cleaner = new StoryMediaCleaner(fileService);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cleaner, "maxAttempts", 3);
+        ReflectionTestUtils.setField(cleaner, "backoffMs", 0L);
+        when(fileService.extractPublicIdFromUrl(anyString())).thenReturn("public-id");
+    }
+
+    @Test
+    void failedDeleteIsRetriedUntilItSucceeds() throws Exception {
+        doThrow(new IOException("timeout")).doNothing().when(fileService).deleteImageInCloudinary("media/s1");
+
+        cleaner.deleteMedia(List.of("media/s1"));
+        cleaner.retryFailed();
+        cleaner.retryFailed();
+
+        verify(fileService, times(2)).deleteImageInCloudinary("media/s1");
+    }
+
+    @Test
+    void retriesStopAfterTheMaxAttempts() throws Exception {
+        doThrow(new IOException("timeout")).when(fileService).deleteImageInCloudinary("media/s1");
+
+        cleaner.deleteMedia(List.of("media/s1"));
+        for (int i = 0; i < 5; i++) {
+            cleaner.retryFailed();
+        }
+
+        verify(fileService, times(3)).deleteImageInCloudinary("media/s1");
+    }
+
+    @Test
+    void retryWaitsForTheBackoff() throws Exception {
+        ReflectionTestUtils.setField(cleaner, "backoffMs", 60_000L);
+        doThrow(new IOException("timeout")).when(fileService).deleteImageInCloudinary("media/s1");
+        doNothing().when(fileService).deleteImageInCloudinary("media/s2");
+
+        cleaner.deleteMedia(List.of("media/s1", "media/s2"));
+        cleaner.retryFailed();
+
+        verify(fileService, times(1)).deleteImageInCloudinary("media/s1");
+        verify(fileService, times(1)).deleteImageInCloudinary("media/s2");
+    }
+}
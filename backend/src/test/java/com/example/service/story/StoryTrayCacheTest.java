@@ -0,0 +1,91 @@
+package com.example.service.story;
+
+import com.example.dto.projection.StoryTrayEntry;
+import com.example.event.FollowChangedEvent;
+import com.example.event.StoryCreatedEvent;
+import com.example.repository.follow.FollowRepository;
+import com.example.repository.story.StoryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StoryTrayCacheTest {
+    private final StoryRepository storyRepository = mock(StoryRepository.class);
+    private final FollowRepository followRepository = mock(FollowRepository.class);
+    private final StoryTrayCache cache = new StoryTrayCache(storyRepository, followRepository, 100, 30);
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @Test
+    void trayIsFollowedAuthorsWithActiveStoriesNewestFirst() {
+        when(storyRepository.findAllTrayEntries(any())).thenReturn(List.of(
+                entry("a", now.minusHours(2)), entry("b", now.minusHours(1)), entry("stranger", now)));
+        when(followRepository.findFollowingIdsByFollowerId("v")).thenReturn(List.of("a", "b", "quiet"));
+
+        assertThat(cache.activeAuthors("v")).extracting(StoryTrayEntry::authorId).containsExactly("b", "a");
+
+        cache.onStoryCreated(new StoryCreatedEvent("s", "a", now.plusMinutes(1), now.plusHours(24)));
+        assertThat(cache.activeAuthors("v")).extracting(StoryTrayEntry::authorId).containsExactly("a", "b");
+    }
+
+    @Test
+    void followChangesUpdateTheCachedSet() {
+        when(storyRepository.findAllTrayEntries(any())).thenReturn(List.of(entry("a", now), entry("b", now)));
+        when(followRepository.findFollowingIdsByFollowerId("v")).thenReturn(List.of("a"));
+        cache.activeAuthors("v");
+
+        cache.onFollowChanged(new FollowChangedEvent("b", "v", true));
+        cache.onFollowChanged(new FollowChangedEvent("a", "v", false));
+
+        assertThat(cache.activeAuthors("v")).extracting(StoryTrayEntry::authorId).containsExactly("b");
+    }
+
+    @Test
+    void followDuringTheFollowingLoadIsNotLost() throws Exception {
+        when(storyRepository.findAllTrayEntries(any())).thenReturn(List.of(entry("a", now)));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Query đọc tập following trước khi lượt follow "a" được commit
+        when(followRepository.findFollowingIdsByFollowerId("v")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return List.of();
+        }).thenReturn(List.of("a"));
+
+        CompletableFuture<List<StoryTrayEntry>> read = CompletableFuture.supplyAsync(() -> cache.activeAuthors("v"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> followed = CompletableFuture.runAsync(
+                () -> cache.onFollowChanged(new FollowChangedEvent("a", "v", true)));
+        release.countDown();
+        read.get(5, TimeUnit.SECONDS);
+        followed.get(5, TimeUnit.SECONDS);
+
+        assertThat(cache.activeAuthors("v")).extracting(StoryTrayEntry::authorId).containsExactly("a");
+    }
+
+    @Test
+    void reloadPicksUpStoriesChangedOnOtherNodes() {
+        when(storyRepository.findAllTrayEntries(any()))
+                .thenReturn(List.of(entry("a", now.minusHours(1)), entry("b", now.minusHours(2))))
+                // Node khác đã xóa story của "a" và "c" vừa đăng story
+                .thenReturn(List.of(entry("b", now.minusHours(2)), entry("c", now.minusMinutes(1))));
+        when(followRepository.findFollowingIdsByFollowerId("v")).thenReturn(List.of("a", "b", "c"));
+        assertThat(cache.activeAuthors("v")).extracting(StoryTrayEntry::authorId).containsExactly("a", "b");
+
+        cache.reload();
+
+        assertThat(cache.activeAuthors("v")).extracting(StoryTrayEntry::authorId).containsExactly("c", "b");
+    }
+
+    private StoryTrayEntry entry(String authorId, LocalDateTime latestAt) {
+        return new StoryTrayEntry(authorId, latestAt, latestAt.plusHours(24));
+    }
+}
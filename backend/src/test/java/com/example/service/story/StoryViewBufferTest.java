@@ -0,0 +1,111 @@
+package com.example.service.story;
+
+import com.example.repository.story.StoryRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StoryViewBufferTest {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final StoryViewBuffer buffer = new StoryViewBuffer(jdbcTemplate, mock(StoryRepository.class),
+            mock(ApplicationEventPublisher.class), 1000);
+
+    @Test
+    void repeatedViewsAreDroppedBeforeTheDatabase() {
+        assertThat(buffer.record("s", "v")).isTrue();
+        assertThat(buffer.record("s", "v")).isFalse();
+        assertThat(buffer.hasRecorded("s", "v")).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void viewedAtIsTheTimeOfTheView() throws Exception {
+        LocalDateTime before = LocalDateTime.now();
+        buffer.record("s", "v");
+        LocalDateTime after = LocalDateTime.now();
+        Thread.sleep(20);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1});
+
+        buffer.flush();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), rows.capture());
+        LocalDateTime viewedAt = ((Timestamp) rows.getValue().get(0)[2]).toLocalDateTime();
+        assertThat(viewedAt).isBetween(before, after);
+        // Điều kiện còn hạn vẫn xét theo lúc flush
+        LocalDateTime checkedAt = ((Timestamp) rows.getValue().get(0)[5]).toLocalDateTime();
+        assertThat(checkedAt).isAfter(after);
+    }
+
+    @Test
+    void partialFailureRequeuesOnlyTheUnwrittenViews() {
+        buffer.record("s", "a");
+        buffer.record("s", "b");
+        buffer.record("s", "c");
+        // Dòng đầu đã ghi, driver dừng ở dòng thứ hai
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList()))
+                .thenThrow(new DataIntegrityViolationException("batch",
+                        new BatchUpdateException(new int[]{1, Statement.EXECUTE_FAILED})))
+                .thenReturn(new int[]{1, 1});
+
+        buffer.flush();
+        buffer.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT"), anyList());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), argThat((List<Object[]> rows) ->
+                rows.size() == 2 && "b".equals(rows.get(0)[1]) && "c".equals(rows.get(1)[1])));
+        // view_count được cộng 1 ở lần đầu và 2 ở lần sau, không tính lại dòng đã ghi
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), argThat((List<Object[]> rows) ->
+                rows.size() == 1 && (long) rows.get(0)[0] == 1L));
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE"), argThat((List<Object[]> rows) ->
+                rows.size() == 1 && (long) rows.get(0)[0] == 2L));
+    }
+
+    @Test
+    void rejectedViewsAreNotRememberedAsRecorded() {
+        buffer.record("s", "a");
+        buffer.record("expired", "b");
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1, 0});
+
+        buffer.flush();
+
+        assertThat(buffer.hasRecorded("s", "a")).isTrue();
+        assertThat(buffer.hasRecorded("expired", "b")).isFalse();
+    }
+
+    @Test
+    void failedCountUpdateIsRetriedOnTheNextFlush() {
+        buffer.record("s", "a");
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+
+        buffer.flush();
+        // Không có lượt xem mới, nhưng phần view_count còn nợ vẫn được cộng
+        buffer.flush();
+        buffer.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT"), anyList());
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE"), argThat((List<Object[]> rows) ->
+                rows.size() == 1 && (long) rows.get(0)[0] == 1L && "s".equals(rows.get(0)[1])));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripKeepsTheFullTimestamp() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_789), "post|id");
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void blankTokenIsTheFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("yesterday|abc"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("2024-05-01T12:00|"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}